@@ -0,0 +1,69 @@
+package com.johan.initview.benchmark;
+
+import com.johan.initview.BindingCode;
+import com.johan.initview.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成代码的文本，和InitViewCreator中一样：字段、findViewById、setOnClickListener、onClick的case和android:onClick的方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingCodeBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    private List<Element> elementList;
+
+    @Setup
+    public void setup() {
+        elementList = Layouts.createElements(count);
+    }
+
+    @Benchmark
+    public String activity() {
+        StringBuilder fieldBuilder = new StringBuilder();
+        StringBuilder codeBuilder = new StringBuilder();
+        StringBuilder methodBuilder = new StringBuilder();
+        methodBuilder.append("public void onClick(View view) {\nswitch(view.getId()) {");
+        StringBuilder onClickBuilder = new StringBuilder();
+        for (Element element : elementList) {
+            BindingCode.appendField(fieldBuilder, "private", element);
+            BindingCode.appendFindViewById(codeBuilder, null, element);
+            if (element.getOnClick() != null) {
+                BindingCode.appendOnClickMethod(onClickBuilder, element.getOnClick());
+            } else if (element.isButton() && element.isClickable()) {
+                BindingCode.appendClickListener(codeBuilder, element, false);
+                BindingCode.appendClickCase(methodBuilder, element);
+            }
+        }
+        methodBuilder.append("}\n}");
+        return fieldBuilder.append(codeBuilder).append(methodBuilder).append(onClickBuilder).toString();
+    }
+
+    @Benchmark
+    public String holderClass() {
+        StringBuilder builder = new StringBuilder();
+        BindingCode.appendHolderClass(builder, "public", "public", "ActivityMainViews", null, elementList);
+        return builder.toString();
+    }
+
+}
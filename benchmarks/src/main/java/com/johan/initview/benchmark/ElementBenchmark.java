@@ -0,0 +1,70 @@
+package com.johan.initview.benchmark;
+
+import com.johan.initview.Element;
+import com.johan.initview.NamingRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Element的创建（计算字段名）和读取字段名，一次调用处理一个布局的所有view
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ElementBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    private List<Element> elementList;
+    private NamingRules rules;
+
+    @Setup
+    public void setup() {
+        elementList = Layouts.createElements(count);
+        rules = NamingRules.parse("Layout=Group\nButton=Btn\n*=\nprefix=false\n");
+    }
+
+    @Benchmark
+    public void create(Blackhole blackhole) {
+        for (int i = 0; i < count; i++) {
+            blackhole.consume(Layouts.createElement(i));
+        }
+    }
+
+    /**
+     * 生成代码时每个element多次读取字段名、get方法名和R.id
+     */
+    @Benchmark
+    public void names(Blackhole blackhole) {
+        for (Element element : elementList) {
+            blackhole.consume(element.getFieldName());
+            blackhole.consume(element.getGetterName());
+            blackhole.consume(element.getFullId());
+        }
+    }
+
+    @Benchmark
+    public void withRules(Blackhole blackhole) {
+        for (Element element : elementList) {
+            blackhole.consume(element.withRules(rules));
+        }
+    }
+
+}
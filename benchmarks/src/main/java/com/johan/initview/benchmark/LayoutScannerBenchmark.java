@@ -0,0 +1,62 @@
+package com.johan.initview.benchmark;
+
+import com.johan.initview.Element;
+import com.johan.initview.LayoutExpander;
+import com.johan.initview.LayoutInfo;
+import com.johan.initview.LayoutScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.xml.stream.XMLStreamException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析布局文件（索引和命令行使用的StAX解析）以及展开、去重
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutScannerBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int count;
+
+    private byte[] content;
+    private LayoutInfo layoutInfo;
+
+    @Setup
+    public void setup() throws XMLStreamException {
+        content = Layouts.createXml(count);
+        layoutInfo = LayoutScanner.scan(content, Layouts.FILE_NAME);
+    }
+
+    @Benchmark
+    public LayoutInfo scan() throws XMLStreamException {
+        return LayoutScanner.scan(content, Layouts.FILE_NAME);
+    }
+
+    @Benchmark
+    public List<Element> resolveUnique() {
+        LayoutExpander expander = new LayoutExpander() {
+            @Override
+            public LayoutInfo getLayout(String layoutName) {
+                return layoutInfo;
+            }
+        };
+        return expander.resolveUnique("activity_main");
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.johan.initview.benchmark;
+
+import com.johan.initview.Element;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 生成测试用的布局，和真实布局一样混合系统view、自定义view、嵌套布局和onClick
+ */
+public class Layouts {
+
+    public static final String FILE_NAME = "activity_main.xml";
+    public static final String PREFIX = "main";
+
+    private static final String[] TAGS = {"TextView", "Button", "ImageView", "EditText", "CheckBox",
+            "com.example.widget.CustomView", "ProgressBar", "ImageButton"};
+    // 每隔几个view嵌套一层LinearLayout
+    private static final int GROUP_SIZE = 8;
+
+    /**
+     * 生成有count个id的布局文件内容
+     * @param count
+     * @return
+     */
+    public static byte[] createXml(int count) {
+        StringBuilder builder = new StringBuilder(count * 96);
+        builder.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        builder.append("<LinearLayout xmlns:android=\"http://schemas.android.com/apk/res/android\"\n");
+        builder.append("    android:layout_width=\"match_parent\"\n    android:layout_height=\"match_parent\">\n");
+        int depth = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % GROUP_SIZE == 0) {
+                builder.append("<LinearLayout android:id=\"@+id/").append(getId(i)).append("\"\n");
+                builder.append("    android:layout_width=\"match_parent\" android:layout_height=\"wrap_content\">\n");
+                depth++;
+                continue;
+            }
+            builder.append("<").append(getTag(i)).append(" android:id=\"@+id/").append(getId(i)).append("\"\n");
+            builder.append("    android:layout_width=\"wrap_content\" android:layout_height=\"wrap_content\"");
+            if (i % 5 == 0) {
+                builder.append("\n    android:onClick=\"onItem").append(i).append("Click\"");
+            }
+            builder.append(" />\n");
+        }
+        for (int i = 0; i < depth; i++) {
+            builder.append("</LinearLayout>\n");
+        }
+        builder.append("</LinearLayout>\n");
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 生成和createXml中相同的count个element
+     * @param count
+     * @return
+     */
+    public static List<Element> createElements(int count) {
+        List<Element> elementList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elementList.add(createElement(i));
+        }
+        return elementList;
+    }
+
+    public static Element createElement(int index) {
+        if (index % GROUP_SIZE == 0) {
+            return new Element(PREFIX, "LinearLayout", getId(index), false, null);
+        }
+        String onClick = index % 5 == 0 ? "onItem" + index + "Click" : null;
+        return new Element(PREFIX, getTag(index), getId(index), index % 3 == 0, onClick);
+    }
+
+    private static String getTag(int index) {
+        return TAGS[index % TAGS.length];
+    }
+
+    private static String getId(int index) {
+        return PREFIX + "_item_" + index + "_title";
+    }
+
+}
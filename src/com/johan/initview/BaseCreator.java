@@ -0,0 +1,210 @@
+package com.johan.initview;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.*;
+import com.intellij.psi.codeStyle.CodeStyleManager;
+import com.intellij.psi.codeStyle.JavaCodeStyleManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 写入代码的基类，批量写入代码，并且只格式化写入的代码
+ */
+public abstract class BaseCreator extends WriteCommandAction.Simple {
+
+    protected Project project;
+    protected PsiFile psiFile;
+    protected PsiElementFactory factory;
+    // 写入的代码
+    private List<PsiElement[]> insertedList = new ArrayList<>();
+    // 运行统计
+    protected RunStatistics statistics;
+
+    protected BaseCreator(Project project, PsiFile psiFile) {
+        super(project, psiFile);
+        this.project = project;
+        this.psiFile = psiFile;
+        this.factory = JavaPsiFacade.getElementFactory(project);
+        this.statistics = new RunStatistics(null);
+    }
+
+    /**
+     * 继续记录后台解析阶段的统计
+     * @param statistics
+     */
+    public void setStatistics(RunStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    protected void run() throws Throwable {
+        generate();
+        InitViewStatistics.getInstance(project).add(statistics);
+    }
+
+    /**
+     * 生成代码，需要在写操作中调用
+     */
+    abstract void generate();
+
+    /**
+     * 缩短写入代码中的类引用（同时加入import），格式化写入的代码
+     */
+    protected void formatInserted() {
+        long start = System.nanoTime();
+        JavaCodeStyleManager styleManager = JavaCodeStyleManager.getInstance(project);
+        for (PsiElement[] range : insertedList) {
+            for (PsiElement element = range[0]; element != null; element = element.getNextSibling()) {
+                if (element.isValid() && !(element instanceof PsiWhiteSpace)) {
+                    styleManager.shortenClassReferences(element);
+                }
+                if (element == range[1]) break;
+            }
+        }
+        statistics.addPhase("shortenClassReferences", start);
+        start = System.nanoTime();
+        // 从后往前格式化，避免前面的修改影响后面的位置
+        List<TextRange> textRangeList = new ArrayList<>();
+        for (PsiElement[] range : insertedList) {
+            if (!range[0].isValid() || !range[1].isValid()) continue;
+            // 包含前面的空白，修正缩进
+            PsiElement first = range[0].getPrevSibling() instanceof PsiWhiteSpace ? range[0].getPrevSibling() : range[0];
+            textRangeList.add(new TextRange(first.getTextRange().getStartOffset(), range[1].getTextRange().getEndOffset()));
+        }
+        Collections.sort(textRangeList, new Comparator<TextRange>() {
+            @Override
+            public int compare(TextRange range1, TextRange range2) {
+                return range2.getStartOffset() - range1.getStartOffset();
+            }
+        });
+        CodeStyleManager codeStyleManager = CodeStyleManager.getInstance(project);
+        for (TextRange textRange : textRangeList) {
+            codeStyleManager.reformatRange(psiFile, textRange.getStartOffset(), textRange.getEndOffset());
+        }
+        statistics.addPhase("reformat", start);
+    }
+
+    /**
+     * 记录写入的代码，first到last是同一层的连续兄弟节点
+     * @param first
+     * @param last
+     */
+    protected void markInserted(PsiElement first, PsiElement last) {
+        insertedList.add(new PsiElement[]{first, last});
+        int count = 0;
+        for (PsiElement element = first; element != null; element = element.getNextSibling()) {
+            if (!(element instanceof PsiWhiteSpace)) {
+                count++;
+                statistics.addStatementCount(countStatements(element));
+            }
+            if (element == last) break;
+        }
+        statistics.addNodeCount(count);
+    }
+
+    /**
+     * 记录写入的代码
+     * @param element
+     */
+    protected void markInserted(PsiElement element) {
+        markInserted(element, element);
+    }
+
+    /**
+     * 统计写入的语句、字段和方法数量，包括写入的方法、类、switch块内部的
+     * @param element
+     * @return
+     */
+    private static int countStatements(PsiElement element) {
+        final int[] count = new int[1];
+        element.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitStatement(PsiStatement statement) {
+                super.visitStatement(statement);
+                count[0]++;
+            }
+
+            @Override
+            public void visitField(PsiField field) {
+                super.visitField(field);
+                count[0]++;
+            }
+
+            @Override
+            public void visitMethod(PsiMethod method) {
+                super.visitMethod(method);
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * 获取从added开始，与first到last同样数量的兄弟节点中的最后一个
+     * @param added
+     * @param first
+     * @param last
+     * @return
+     */
+    protected PsiElement getLastAdded(PsiElement added, PsiElement first, PsiElement last) {
+        PsiElement lastAdded = added;
+        for (PsiElement element = first; element != last && element != null; element = element.getNextSibling()) {
+            if (lastAdded.getNextSibling() == null) break;
+            lastAdded = lastAdded.getNextSibling();
+        }
+        return lastAdded;
+    }
+
+    /**
+     * 把多条语句一次写入代码块末尾
+     * @param codeBlock
+     * @param codeBuilder
+     */
+    protected void addStatements(PsiCodeBlock codeBlock, StringBuilder codeBuilder) {
+        if (codeBuilder.length() == 0) return;
+        PsiCodeBlock newCodeBlock = factory.createCodeBlockFromText("{\n" + codeBuilder + "}", codeBlock);
+        PsiStatement[] statements = newCodeBlock.getStatements();
+        if (statements.length == 0) return;
+        PsiElement added = codeBlock.addRangeBefore(statements[0], statements[statements.length - 1], codeBlock.getRBrace());
+        markInserted(added, getLastAdded(added, statements[0], statements[statements.length - 1]));
+    }
+
+    /**
+     * 把多个字段或方法一次写入类中anchor的后面
+     * @param psiClass
+     * @param memberBuilder
+     * @param anchor
+     */
+    protected void addMembers(PsiClass psiClass, StringBuilder memberBuilder, PsiElement anchor) {
+        if (memberBuilder.length() == 0) return;
+        PsiClass newClass = factory.createClassFromText(memberBuilder.toString(), psiClass);
+        PsiElement first = newClass.getLBrace().getNextSibling();
+        PsiElement last = newClass.getRBrace().getPrevSibling();
+        if (first == null || last == null || first == newClass.getRBrace()) return;
+        PsiElement added = psiClass.addRangeAfter(first, last, anchor);
+        markInserted(added, getLastAdded(added, first, last));
+    }
+
+    /**
+     * 查找method方法内的switch
+     * @param method
+     * @return
+     */
+    protected PsiSwitchStatement findSwitchStatement(PsiMethod method) {
+        PsiCodeBlock codeBlock = method.getBody();
+        PsiStatement[] statements = codeBlock.getStatements();
+        for (PsiStatement statement : statements) {
+            if (statement instanceof PsiSwitchStatement) {
+                PsiSwitchStatement switchStatement = (PsiSwitchStatement) statement;
+                return switchStatement;
+            }
+        }
+        return null;
+    }
+
+}
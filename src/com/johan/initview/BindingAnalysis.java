@@ -0,0 +1,150 @@
+package com.johan.initview;
+
+import com.intellij.psi.*;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 类中setContentView(R.layout.x)使用的布局，以及布局中还没有字段或者没有初始化的id
+ * 结果缓存在类上，类所在的文件和布局都不变时检查和行标记直接复用，布局从LayoutIndex读取，不解析布局文件
+ */
+public class BindingAnalysis {
+
+    private static final BindingAnalysis EMPTY = new BindingAnalysis();
+
+    // 类中的setContentView调用
+    private List<Usage> usageList = new ArrayList<>();
+    // 字段名 -> 对应的element
+    private Map<String, Element> fieldMap = new HashMap<>();
+    // 字段名 -> element所在的布局（setContentView的布局）
+    private Map<String, Usage> fieldUsageMap = new HashMap<>();
+
+    /**
+     * 获取类的分析结果，类所在的文件或者布局修改后重新分析
+     * @param psiClass
+     * @return
+     */
+    public static BindingAnalysis getInstance(final PsiClass psiClass) {
+        return CachedValuesManager.getCachedValue(psiClass, new CachedValueProvider<BindingAnalysis>() {
+            @Nullable
+            @Override
+            public Result<BindingAnalysis> compute() {
+                // 只依赖类所在的文件和布局，修改其他文件时不重新分析
+                return Result.create(analyze(psiClass), psiClass.getContainingFile(),
+                        LayoutSync.getInstance(psiClass.getProject()).getLayoutTracker());
+            }
+        });
+    }
+
+    private static BindingAnalysis analyze(PsiClass psiClass) {
+        final List<PsiExpression> layoutExpressionList = new ArrayList<>();
+        // 类中所有findViewById的id，不只是initView中的
+        final Set<String> foundIdSet = new HashSet<>();
+        for (PsiMethod psiMethod : psiClass.getMethods()) {
+            if (psiMethod.getBody() == null) continue;
+            psiMethod.getBody().accept(new JavaRecursiveElementWalkingVisitor() {
+                @Override
+                public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                    super.visitMethodCallExpression(expression);
+                    String methodName = expression.getMethodExpression().getReferenceName();
+                    if (!"setContentView".equals(methodName) && !"findViewById".equals(methodName)) return;
+                    PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+                    if (arguments.length == 0) return;
+                    if ("findViewById".equals(methodName)) {
+                        foundIdSet.add(arguments[0].getText().replaceAll("\\s", ""));
+                    } else if (arguments[0].getText().replaceAll("\\s", "").startsWith("R.layout.")) {
+                        layoutExpressionList.add(arguments[0]);
+                    }
+                }
+            });
+        }
+        if (layoutExpressionList.isEmpty()) {
+            return EMPTY;
+        }
+        BindingAnalysis analysis = new BindingAnalysis();
+        ClassMemberIndex memberIndex = new ClassMemberIndex(psiClass);
+        LayoutResolver resolver = new LayoutResolver(psiClass.getProject(), psiClass);
+        for (PsiExpression layoutExpression : layoutExpressionList) {
+            String layoutName = layoutExpression.getText().replaceAll("\\s", "").substring(9);
+            if (resolver.getLayout(layoutName) == null) continue;
+            Usage usage = new Usage(layoutExpression, layoutName);
+            for (Element element : resolver.resolveUnique(layoutName)) {
+                if (!element.isValidId()) continue;
+                String fieldName = element.getFieldName();
+                if (memberIndex.hasField(fieldName)) {
+                    if (!analysis.fieldMap.containsKey(fieldName)) {
+                        analysis.fieldMap.put(fieldName, element);
+                        analysis.fieldUsageMap.put(fieldName, usage);
+                    }
+                }
+                // 已经有findViewById（字段可以是自己的命名，如mTitle），不需要生成
+                if (foundIdSet.contains(element.getFullId()) || memberIndex.isBound(element)) continue;
+                // 没有findViewById时才按生成的字段名判断：有字段，通过bindView或者延迟初始化的get方法初始化
+                if (memberIndex.hasField(fieldName) && memberIndex.getMethod(element.getGetterName()) != null) continue;
+                usage.missingList.add(element);
+            }
+            analysis.usageList.add(usage);
+        }
+        return analysis;
+    }
+
+    public List<Usage> getUsageList() {
+        return Collections.unmodifiableList(usageList);
+    }
+
+    /**
+     * 获取字段对应的element
+     * @param fieldName
+     * @return 字段不是布局中的view时返回null
+     */
+    public Element getElement(String fieldName) {
+        return fieldMap.get(fieldName);
+    }
+
+    /**
+     * 获取字段对应的setContentView
+     * @param fieldName
+     * @return
+     */
+    public Usage getUsage(String fieldName) {
+        return fieldUsageMap.get(fieldName);
+    }
+
+    /**
+     * setContentView(R.layout.x)及布局中没有字段或者没有初始化的id
+     */
+    public static class Usage {
+
+        private PsiExpression layoutExpression;
+        private String layoutName;
+        private List<Element> missingList = new ArrayList<>();
+
+        private Usage(PsiExpression layoutExpression, String layoutName) {
+            this.layoutExpression = layoutExpression;
+            this.layoutName = layoutName;
+        }
+
+        public PsiExpression getLayoutExpression() {
+            return layoutExpression;
+        }
+
+        public String getLayoutName() {
+            return layoutName;
+        }
+
+        public List<Element> getMissingList() {
+            return Collections.unmodifiableList(missingList);
+        }
+
+    }
+
+}
@@ -0,0 +1,201 @@
+package com.johan.initview;
+
+import java.util.List;
+
+/**
+ * 生成代码的文本，不依赖IDE，插件和命令行共用
+ */
+public class BindingCode {
+
+    /**
+     * 字段声明，如 private TextView nameView;
+     * @param builder
+     * @param modifier 修饰符，没有时传空字符串
+     * @param element
+     */
+    public static void appendField(StringBuilder builder, String modifier, Element element) {
+        if (!modifier.isEmpty()) {
+            builder.append(modifier).append(" ");
+        }
+        builder.append(element.getType()).append(" ").append(element.getFieldName()).append(";\n");
+    }
+
+    /**
+     * findViewById语句，如 nameView = (TextView) itemView.findViewById(R.id.name);
+     * @param builder
+     * @param root 调用findViewById的对象，如itemView，在Activity中传null
+     * @param element
+     */
+    public static void appendFindViewById(StringBuilder builder, String root, Element element) {
+        builder.append(element.getFieldName()).append(" = (").append(element.getType()).append(")").append(" ");
+        if (root != null) {
+            builder.append(root).append(".");
+        }
+        builder.append("findViewById(").append(element.getFullId()).append(");\n");
+    }
+
+    /**
+     * 设置点击事件的语句
+     * @param builder
+     * @param element
+     * @param lazy 延迟初始化的方式通过get方法获取view
+     */
+    public static void appendClickListener(StringBuilder builder, Element element, boolean lazy) {
+        builder.append(lazy ? element.getGetterName() + "()" : element.getFieldName()).append(".setOnClickListener(this);\n");
+    }
+
+    /**
+     * 延迟初始化的get方法
+     * @param builder
+     * @param element
+     */
+    public static void appendLazyGetter(StringBuilder builder, Element element) {
+        builder.append("private ").append(element.getType()).append(" ").append(element.getGetterName()).append("() {\n")
+                .append("if (").append(element.getFieldName()).append(" == null) {\n");
+        appendFindViewById(builder, null, element);
+        builder.append("}\n")
+                .append("return ").append(element.getFieldName()).append(";\n")
+                .append("}\n");
+    }
+
+    /**
+     * inflate ViewStub的方法名（stubView -> inflateStubView）
+     * @param stub
+     * @return
+     */
+    public static String getInflateMethodName(Element stub) {
+        return "inflate" + stub.getGetterName().substring(3);
+    }
+
+    /**
+     * inflate ViewStub并初始化其中view的方法，ViewStub只能inflate一次，inflate之后不再有parent
+     * @param builder
+     * @param stub
+     * @param lazy 延迟初始化的方式通过get方法获取ViewStub
+     * @param codeBuilder 在inflate出的view上findViewById等语句
+     */
+    public static void appendInflateStubMethod(StringBuilder builder, Element stub, boolean lazy, CharSequence codeBuilder) {
+        String stubReference = lazy ? stub.getGetterName() + "()" : stub.getFieldName();
+        builder.append("private void ").append(getInflateMethodName(stub)).append("() {\n")
+                .append("if (").append(stubReference).append(".getParent() == null) {\nreturn;\n}\n")
+                .append("android.view.View view = ").append(stubReference).append(".inflate();\n")
+                .append(codeBuilder)
+                .append("}\n");
+    }
+
+    /**
+     * 没有id的ViewStub不能在代码中inflate，生成从inflate出的view初始化的方法名（layout_detail -> bindLayoutDetail）
+     * @param stub
+     * @return
+     */
+    public static String getBindStubMethodName(Element stub) {
+        return "bind" + toClassName(stub.getStubLayout());
+    }
+
+    /**
+     * 从inflate出的view初始化ViewStub布局中view的方法，由inflate ViewStub的代码（如OnInflateListener）调用
+     * @param builder
+     * @param stub
+     * @param codeBuilder 在inflate出的view上findViewById等语句
+     */
+    public static void appendBindStubMethod(StringBuilder builder, Element stub, CharSequence codeBuilder) {
+        builder.append("private void ").append(getBindStubMethodName(stub)).append("(android.view.View view) {\n")
+                .append(codeBuilder)
+                .append("}\n");
+    }
+
+    /**
+     * bindView方法中按id给字段赋值的case
+     * @param builder
+     * @param element
+     */
+    public static void appendBindCase(StringBuilder builder, Element element) {
+        builder.append("case ").append(element.getFullId()).append(":\n")
+                .append(element.getFieldName()).append(" = (").append(element.getType()).append(") view;\nbreak;\n");
+    }
+
+    /**
+     * onClick方法中的空case
+     * @param builder
+     * @param element
+     */
+    public static void appendClickCase(StringBuilder builder, Element element) {
+        builder.append("case ").append(element.getFullId()).append(":\nbreak;\n");
+    }
+
+    /**
+     * 布局文件中android:onClick指定的方法
+     * @param builder
+     * @param method
+     */
+    public static void appendOnClickMethod(StringBuilder builder, String method) {
+        builder.append("public void ").append(method).append(" (View view) {\n\n}\n");
+    }
+
+    /**
+     * 遍历一次View树的bindView方法
+     * @param caseBuilder
+     * @return
+     */
+    public static String getBindViewMethod(CharSequence caseBuilder) {
+        return "private void bindView(android.view.View view) {\n"
+                + "switch (view.getId()) {\n" + caseBuilder + "}\n"
+                + "if (view instanceof android.view.ViewGroup) {\n"
+                + "android.view.ViewGroup viewGroup = (android.view.ViewGroup) view;\n"
+                + "for (int i = 0; i < viewGroup.getChildCount(); i++) {\n"
+                + "bindView(viewGroup.getChildAt(i));\n"
+                + "}\n"
+                + "}\n"
+                + "}";
+    }
+
+    /**
+     * 持有布局中所有view的类，构造方法中findViewById，用于ViewHolder和命令行生成的绑定类
+     * @param builder
+     * @param modifier 类的修饰符
+     * @param memberModifier 字段和构造方法的修饰符，没有时传空字符串
+     * @param className
+     * @param superClass 父类，没有时传null
+     * @param elementList
+     */
+    public static void appendHolderClass(StringBuilder builder, String modifier, String memberModifier, String className, String superClass, List<Element> elementList) {
+        builder.append(modifier).append(" class ").append(className);
+        if (superClass != null) {
+            builder.append(" extends ").append(superClass);
+        }
+        builder.append(" {\n");
+        for (Element element : elementList) {
+            // 如果不是有效的id
+            if (!element.isValidId()) continue;
+            appendField(builder, memberModifier, element);
+        }
+        if (!memberModifier.isEmpty()) {
+            builder.append(memberModifier).append(" ");
+        }
+        builder.append(className).append("(android.view.View itemView) {\n");
+        if (superClass != null) {
+            builder.append("super(itemView);\n");
+        }
+        for (Element element : elementList) {
+            // 如果不是有效的id
+            if (!element.isValidId()) continue;
+            appendFindViewById(builder, "itemView", element);
+        }
+        builder.append("}\n}");
+    }
+
+    /**
+     * 布局名转换为类名（item_user -> ItemUser）
+     * @param layoutName
+     * @return
+     */
+    public static String toClassName(String layoutName) {
+        StringBuilder nameBuilder = new StringBuilder();
+        for (String part : layoutName.split("_")) {
+            if (part.isEmpty()) continue;
+            nameBuilder.append(Character.toUpperCase(part.charAt(0))).append(part.substring(1));
+        }
+        return nameBuilder.toString();
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.johan.initview;
+
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo;
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerProvider;
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.util.NotNullLazyValue;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiField;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiIdentifier;
+import com.intellij.psi.xml.XmlTag;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 布局中view对应的字段旁显示行标记，点击跳转到布局中的标签
+ * 是否显示只读缓存的BindingAnalysis，点击时才解析布局文件查找标签
+ */
+public class BindingLineMarkerProvider extends RelatedItemLineMarkerProvider {
+
+    @Override
+    protected void collectNavigationMarkers(@NotNull PsiElement element, @NotNull Collection<? super RelatedItemLineMarkerInfo> result) {
+        // 只处理字段名，行标记要求放在叶子节点上
+        if (!(element instanceof PsiIdentifier) || !(element.getParent() instanceof PsiField)) return;
+        PsiField psiField = (PsiField) element.getParent();
+        if (psiField.getNameIdentifier() != element) return;
+        PsiClass psiClass = psiField.getContainingClass();
+        if (psiClass == null) return;
+        BindingAnalysis analysis = BindingAnalysis.getInstance(psiClass);
+        final Element viewElement = analysis.getElement(psiField.getName());
+        if (viewElement == null) return;
+        final BindingAnalysis.Usage usage = analysis.getUsage(psiField.getName());
+        final PsiClass context = psiClass;
+        NavigationGutterIconBuilder<PsiElement> builder = NavigationGutterIconBuilder.create(AllIcons.FileTypes.Xml)
+                .setTargets(new NotNullLazyValue<Collection<? extends PsiElement>>() {
+                    @NotNull
+                    @Override
+                    protected Collection<? extends PsiElement> compute() {
+                        return findTags(context, usage.getLayoutName(), viewElement.getId());
+                    }
+                })
+                .setTooltipText(usage.getLayoutName() + ".xml：" + viewElement.getFullId());
+        result.add(builder.createLineMarkerInfo(element));
+    }
+
+    /**
+     * 在布局及其include的布局中查找标签
+     * @param context
+     * @param layoutName
+     * @param id
+     * @return
+     */
+    private static List<XmlTag> findTags(PsiClass context, String layoutName, String id) {
+        List<XmlTag> tagList = new ArrayList<>();
+        if (!context.isValid()) return tagList;
+        LayoutResolver resolver = new LayoutResolver(context.getProject(), context);
+        resolver.resolveUnique(layoutName);
+        for (String resolvedName : resolver.getResolvedLayoutNames()) {
+            for (PsiFile layoutFile : resolver.getLayoutFiles(resolvedName)) {
+                Utils.findTags(layoutFile, id, tagList);
+            }
+        }
+        return tagList;
+    }
+
+}
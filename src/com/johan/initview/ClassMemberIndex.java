@@ -0,0 +1,198 @@
+package com.johan.initview;
+
+import com.intellij.psi.*;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 目标类已有成员的索引，生成代码前扫描一次，之后按名字或id直接查询
+ */
+public class ClassMemberIndex {
+
+    // 字段名，包括父类的字段
+    private Set<String> fieldSet = new HashSet<>();
+    // 本类的方法，方法名 -> 第一个同名方法
+    private Map<String, PsiMethod> methodMap = new HashMap<>();
+    // initView方法中已经findViewById的id，bindView方法中已经写了case的id（R.id.xxx）
+    private Set<String> boundIdSet = new HashSet<>();
+    // initView方法中已经setOnClickListener的字段名或者get方法调用
+    private Set<String> listenerFieldSet = new HashSet<>();
+    // onClick方法中已经写了case的id（R.id.xxx）
+    private Set<String> caseIdSet = new HashSet<>();
+    // onCreate方法是否已经调用initView
+    private boolean initViewCalled;
+    // initView方法是否已经调用bindView
+    private boolean bindViewCalled;
+
+    private PsiClass psiClass;
+
+    public ClassMemberIndex(PsiClass psiClass) {
+        this.psiClass = psiClass;
+        for (PsiField psiField : psiClass.getAllFields()) {
+            fieldSet.add(psiField.getName());
+        }
+        for (PsiMethod psiMethod : psiClass.getMethods()) {
+            if (!methodMap.containsKey(psiMethod.getName())) {
+                methodMap.put(psiMethod.getName(), psiMethod);
+            }
+        }
+        indexInitViewMethod(methodMap.get("initView"));
+        indexBindViewMethod(methodMap.get("bindView"));
+        indexClickableMethod(methodMap.get("onClick"));
+        indexOnCreateMethod(methodMap.get("onCreate"));
+    }
+
+    /**
+     * 扫描initView方法中的findViewById和setOnClickListener
+     * @param method
+     */
+    private void indexInitViewMethod(PsiMethod method) {
+        if (method == null || method.getBody() == null) return;
+        method.getBody().accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                super.visitMethodCallExpression(expression);
+                String methodName = expression.getMethodExpression().getReferenceName();
+                if ("findViewById".equals(methodName)) {
+                    PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+                    if (arguments.length > 0) {
+                        boundIdSet.add(normalize(arguments[0].getText()));
+                    }
+                } else if ("setOnClickListener".equals(methodName)) {
+                    PsiExpression qualifier = expression.getMethodExpression().getQualifierExpression();
+                    if (qualifier != null) {
+                        listenerFieldSet.add(normalize(qualifier.getText()));
+                    }
+                } else if ("bindView".equals(methodName)) {
+                    bindViewCalled = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * 扫描其他初始化view的方法（如ViewHolder的构造方法）中的findViewById和setOnClickListener
+     * @param method
+     */
+    public void indexBindingMethod(PsiMethod method) {
+        indexInitViewMethod(method);
+    }
+
+    /**
+     * 扫描bindView方法中switch的case
+     * @param method
+     */
+    private void indexBindViewMethod(PsiMethod method) {
+        if (method == null || method.getBody() == null) return;
+        method.getBody().accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitSwitchLabelStatement(PsiSwitchLabelStatement statement) {
+                super.visitSwitchLabelStatement(statement);
+                PsiExpression caseValue = statement.getCaseValue();
+                if (caseValue != null) {
+                    boundIdSet.add(normalize(caseValue.getText()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 扫描onClick方法中switch的case
+     * @param method
+     */
+    private void indexClickableMethod(PsiMethod method) {
+        if (method == null || method.getBody() == null) return;
+        method.getBody().accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitSwitchLabelStatement(PsiSwitchLabelStatement statement) {
+                super.visitSwitchLabelStatement(statement);
+                PsiExpression caseValue = statement.getCaseValue();
+                if (caseValue != null) {
+                    caseIdSet.add(normalize(caseValue.getText()));
+                }
+            }
+        });
+    }
+
+    /**
+     * 扫描onCreate方法是否调用了initView
+     * @param method
+     */
+    private void indexOnCreateMethod(PsiMethod method) {
+        if (method == null || method.getBody() == null) return;
+        method.getBody().accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                super.visitMethodCallExpression(expression);
+                if ("initView".equals(expression.getMethodExpression().getReferenceName())) {
+                    initViewCalled = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * 去掉空白字符，R.id. xxx和R.id.xxx视为同一个id
+     * @param text
+     * @return
+     */
+    private static String normalize(String text) {
+        return text.replaceAll("\\s", "");
+    }
+
+    public boolean hasField(String field) {
+        return fieldSet.contains(field);
+    }
+
+    public void addField(String field) {
+        fieldSet.add(field);
+    }
+
+    /**
+     * 获取本类的方法
+     * @param method
+     * @return
+     */
+    public PsiMethod getMethod(String method) {
+        return methodMap.get(method);
+    }
+
+    /**
+     * 是否有这个方法，包括父类的方法，只有本类找不到时才查找父类
+     * @param method
+     * @return
+     */
+    public boolean hasMethod(String method) {
+        return methodMap.containsKey(method) || psiClass.findMethodsByName(method, true).length > 0;
+    }
+
+    public void addMethod(PsiMethod psiMethod) {
+        if (!methodMap.containsKey(psiMethod.getName())) {
+            methodMap.put(psiMethod.getName(), psiMethod);
+        }
+    }
+
+    public boolean isBound(Element element) {
+        return boundIdSet.contains(element.getFullId());
+    }
+
+    public boolean hasClickListener(Element element) {
+        return listenerFieldSet.contains(element.getFieldName()) || listenerFieldSet.contains(element.getGetterName() + "()");
+    }
+
+    public boolean hasCase(Element element) {
+        return caseIdSet.contains(element.getFullId());
+    }
+
+    public boolean isInitViewCalled() {
+        return initViewCalled;
+    }
+
+    public boolean isBindViewCalled() {
+        return bindViewCalled;
+    }
+
+}
@@ -1,36 +1,154 @@
 package com.johan.initview;
 
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 布局中的view，创建时计算好字段名等，之后不再修改
+ */
 public class Element {
 
-    // view prefix
-    private String prefix;
+    // 布局前缀 如main
+    private final String layoutPrefix;
     // view id
-    private String id;
+    private final String id;
     // view name 如TextView
-    private String name;
+    private final String name;
+    // 布局中的标签名，自定义view带包名，如com.example.CustomView
+    private final String qualifiedName;
+    // 生成代码时使用的类型，默认是标签名，在IDE中解析为全限定名
+    private final String type;
     // clickable
-    private boolean clickable = false;
+    private final boolean clickable;
     // on click function
-    private String onClick;
+    private final String onClick;
+    // ViewStub的android:layout，不是ViewStub时为null
+    private final String stubLayout;
+    // ViewStub的android:inflatedId
+    private final String inflatedId;
+    // ViewStub布局（展开include后）中的element，inflate之后才存在
+    private final List<Element> stubElementList;
+
+    // 以下在创建时计算
+    private final boolean validId;
+    private final boolean button;
+    // R.id.id
+    private final String fullId;
+    private final String fieldName;
+    private final String getterName;
 
     public Element(String prefix, String name, String id, boolean clickable, String onClick) {
-        String[] packages = name.split("\\.");
-        if (packages.length > 1) {
-            // com.example.CustomView
-            this.name = packages[packages.length - 1];
-        } else {
-            this.name = name;
-        }
-        this.prefix = prefix + "_";
+        this(prefix, name, id, clickable, onClick, null, null);
+    }
+
+    public Element(String prefix, String name, String id, boolean clickable, String onClick, String stubLayout, String inflatedId) {
+        this(prefix, name, name, id, clickable, onClick, stubLayout, inflatedId, NamingRules.DEFAULT);
+    }
+
+    private Element(String prefix, String qualifiedName, String type, String id, boolean clickable, String onClick,
+                    String stubLayout, String inflatedId, NamingRules rules) {
+        this.layoutPrefix = prefix;
+        this.qualifiedName = qualifiedName;
+        // com.example.CustomView
+        this.name = qualifiedName.substring(qualifiedName.lastIndexOf('.') + 1);
+        this.type = type;
         this.id = id;
         this.clickable = clickable;
         this.onClick = onClick;
+        this.stubLayout = stubLayout;
+        this.inflatedId = inflatedId;
+        this.stubElementList = Collections.emptyList();
+        this.validId = id != null && !"".equals(id);
+        this.button = name.endsWith("Button");
+        this.fullId = "R.id." + id;
+        this.fieldName = id == null ? null : rules.getFieldName(prefix + "_", id, name);
+        this.getterName = fieldName == null || fieldName.isEmpty() ? null : "get" + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+
+    /**
+     * 复制计算好的名字，只修改类型和ViewStub的布局
+     */
+    private Element(Element source, String type, List<Element> stubElementList) {
+        this.layoutPrefix = source.layoutPrefix;
+        this.qualifiedName = source.qualifiedName;
+        this.name = source.name;
+        this.type = type;
+        this.id = source.id;
+        this.clickable = source.clickable;
+        this.onClick = source.onClick;
+        this.stubLayout = source.stubLayout;
+        this.inflatedId = source.inflatedId;
+        this.stubElementList = stubElementList;
+        this.validId = source.validId;
+        this.button = source.button;
+        this.fullId = source.fullId;
+        this.fieldName = source.fieldName;
+        this.getterName = source.getterName;
+    }
+
+    /**
+     * 复制element，使用新的类型
+     * @param type
+     * @return
+     */
+    public Element withType(String type) {
+        return new Element(this, type, stubElementList);
+    }
+
+    /**
+     * 按新的命名规则重新计算字段名，需要在展开ViewStub之前调用
+     * @param rules
+     * @return
+     */
+    public Element withRules(NamingRules rules) {
+        return new Element(layoutPrefix, qualifiedName, type, id, clickable, onClick, stubLayout, inflatedId, rules);
+    }
+
+    /**
+     * 复制element，带上ViewStub布局中的element
+     * @param stubElementList
+     * @return
+     */
+    public Element withStubElements(List<Element> stubElementList) {
+        return new Element(this, type, Collections.unmodifiableList(stubElementList));
+    }
+
+    public String getId() {
+        return id;
     }
 
     public String getName() {
         return name;
     }
 
+    public String getQualifiedName() {
+        return qualifiedName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getStubLayout() {
+        return stubLayout;
+    }
+
+    public String getInflatedId() {
+        return inflatedId;
+    }
+
+    public List<Element> getStubElementList() {
+        return stubElementList;
+    }
+
+    /**
+     * 是否是指定了布局的ViewStub
+     * @return
+     */
+    public boolean isViewStub() {
+        return stubLayout != null;
+    }
+
     public boolean isClickable() {
         return clickable;
     }
@@ -44,7 +162,7 @@ public class Element {
      * @return
      */
     public boolean isValidId() {
-        return id != null && !"".equals(id);
+        return validId;
     }
 
     /**
@@ -52,7 +170,7 @@ public class Element {
      * @return
      */
     public boolean isButton() {
-        return name.endsWith("Button");
+        return button;
     }
 
     /**
@@ -60,7 +178,7 @@ public class Element {
      * @return
      */
     public String getFullId() {
-        return "R.id." + id;
+        return fullId;
     }
 
     /**
@@ -68,50 +186,15 @@ public class Element {
      * @return
      */
     public String getFieldName() {
-        String realId = id.replace(prefix, "");
-        if (realId.indexOf("_") == -1) {
-            return realId + getFieldNameSuffix();
-        }
-        StringBuilder fieldNameBuilder = new StringBuilder();
-        String[] ids = realId.split("_");
-        for (int i = 0; i < ids.length; i++) {
-            if (i == 0) {
-                fieldNameBuilder.append(ids[i]);
-            } else {
-                fieldNameBuilder.append(toFirstUpper(ids[i]));
-            }
-        }
-        fieldNameBuilder.append(getFieldNameSuffix());
-        return fieldNameBuilder.toString();
-    }
-
-    /**
-     * 第一个变大写
-     * @param name
-     * @return
-     */
-    private String toFirstUpper(String name) {
-        return name.substring(0, 1).toUpperCase() + name.substring(1);
+        return fieldName;
     }
 
     /**
-     * 个人习惯，命名view的变量时加入View类型作为后缀
+     * 获取延迟初始化的get方法名
      * @return
      */
-    private String getFieldNameSuffix() {
-        if (name.endsWith("Layout")) {
-            return "Layout";
-        } else if (name.endsWith("Button")) {
-            return "Button";
-        } else if (name.endsWith("Bar")) {
-            return "Bar";
-        } else if (name.endsWith("Spinner")) {
-            return "Spinner";
-        } else if (name.endsWith("Box")) {
-            return "Box";
-        } else {
-            return "View";
-        }
+    public String getGetterName() {
+        return getterName;
     }
 
 }
@@ -0,0 +1,39 @@
+package com.johan.initview;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+
+import java.io.IOException;
+
+/**
+ * 把InitView运行统计导出为JSON文件
+ */
+public class ExportStatisticsAction extends AnAction {
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getProject();
+        if (project == null) {
+            return;
+        }
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("导出InitView统计", "保存为JSON文件", "json");
+        VirtualFileWrapper fileWrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project)
+                .save(null, "initview-statistics.json");
+        if (fileWrapper == null) {
+            return;
+        }
+        try {
+            FileUtil.writeToFile(fileWrapper.getFile(), InitViewStatistics.getInstance(project).toJson());
+        } catch (IOException e) {
+            new Notification("InitView", "InitView", "导出失败：" + e.getMessage(), NotificationType.ERROR).notify(project);
+        }
+    }
+
+}
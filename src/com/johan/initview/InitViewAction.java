@@ -4,19 +4,16 @@ import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.PlatformDataKeys;
 import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.search.FilenameIndex;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiUtilBase;
-import com.intellij.psi.xml.XmlFile;
 import org.apache.commons.lang.StringUtils;
 
-import java.util.ArrayList;
-import java.util.List;
-
-public class InitViewAction extends AnAction {
+/**
+ * 重建索引期间也可以使用，从预加载的布局快照中读取布局
+ */
+public class InitViewAction extends AnAction implements DumbAware {
 
     @Override
     public void actionPerformed(AnActionEvent event) {
@@ -36,27 +33,13 @@ public class InitViewAction extends AnAction {
             ViewUtils.showPopupBalloon(editor, "请选择布局id");
             return;
         }
-        String layoutFileName = selectedText.substring(9) + ".xml";
-        // 通过文件名查找布局文件
-        PsiFile[] getFiles = FilenameIndex.getFilesByName(project, layoutFileName, GlobalSearchScope.allScope(project));
-        // 如果没有找到，提示没有找到布局文件
-        if (getFiles == null || getFiles.length == 0) {
-            ViewUtils.showPopupBalloon(editor, "没有找到布局文件：" + layoutFileName);
-            return;
-        }
-        // 解析XML
-        XmlFile layoutFile = (XmlFile) getFiles[0];
-        List<Element> elementList = new ArrayList<>();
-        Utils.parseXmlLayout(layoutFile, elementList);
-        if (elementList.size() == 0) {
-            ViewUtils.showPopupBalloon(editor, "没有找到任何id");
+        String layoutName = selectedText.substring(9);
+        PsiFile psiFile = PsiUtilBase.getPsiFileInEditor(editor, project);
+        if (psiFile == null) {
             return;
         }
-        // 写入文件，不允许在主线程中进行实时的文件写入
-        PsiFile psiFile = PsiUtilBase.getPsiFileInEditor(editor, project);
-        PsiClass psiClass = Utils.getTargetClass(editor, psiFile);
-        InitViewCreator creator = new InitViewCreator(project, psiFile, psiClass, elementList);
-        creator.execute();
+        // 查找和解析布局放到后台进行，避免卡住UI线程，同一个类的请求合并
+        InitViewScheduler.getInstance(project).schedule(editor, psiFile, layoutName);
     }
 
 }
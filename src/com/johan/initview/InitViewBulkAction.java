@@ -0,0 +1,54 @@
+package com.johan.initview;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+
+/**
+ * 对选中的目录（包）或者module批量生成
+ */
+public class InitViewBulkAction extends AnAction {
+
+    @Override
+    public void update(AnActionEvent event) {
+        event.getPresentation().setEnabledAndVisible(event.getProject() != null && getScope(event) != null);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getProject();
+        if (project == null) {
+            return;
+        }
+        GlobalSearchScope scope = getScope(event);
+        if (scope == null) {
+            return;
+        }
+        new InitViewBulkTask(project, scope).queue();
+    }
+
+    /**
+     * 获取选中目录或者module的范围
+     * @param event
+     * @return
+     */
+    private GlobalSearchScope getScope(AnActionEvent event) {
+        PsiElement element = event.getData(CommonDataKeys.PSI_ELEMENT);
+        if (element instanceof PsiDirectory) {
+            return GlobalSearchScopesCore.directoryScope((PsiDirectory) element, true);
+        }
+        Module module = event.getData(LangDataKeys.MODULE_CONTEXT);
+        if (module != null) {
+            return module.getModuleScope(false);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,335 @@
+package com.johan.initview;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.ide.highlighter.JavaFileType;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量生成：查找范围内所有setContentView(R.layout.x)、inflate(R.layout.x)的类，
+ * 并行解析用到的布局，每个文件一次写操作
+ * Adapter生成ViewHolder，其他类需要能调用findViewById（Activity、Dialog、View等），否则跳过
+ */
+public class InitViewBulkTask extends Task.Backgroundable {
+
+    // 查找的范围（目录或者module）
+    private GlobalSearchScope scope;
+
+    // 文件 -> 文件中需要生成代码的类
+    private Map<PsiFile, List<Target>> targetMap = new ConcurrentHashMap<>();
+    // 以下以module和布局名为key（见getLayoutKey），不同module中的同名布局分别解析
+    // 布局 -> 布局中的element，同一个module的多个类用同一个布局时只解析一次
+    private Map<String, List<Element>> layoutMap = new ConcurrentHashMap<>();
+    // 布局 -> 布局及其include的布局
+    private Map<String, Set<String>> layoutNameSetMap = new ConcurrentHashMap<>();
+    // 布局 -> 这个module中使用这个布局的任意一个文件，用于确定查找布局的module
+    private Map<String, PsiFile> layoutContextMap = new ConcurrentHashMap<>();
+
+    // 生成代码的类的数量
+    private int classCount;
+    // 跳过的不支持的类（Fragment等不能直接调用findViewById的类）的数量
+    private AtomicInteger unsupportedCount = new AtomicInteger();
+
+    public InitViewBulkTask(Project project, GlobalSearchScope scope) {
+        super(project, "InitView", true);
+        this.scope = scope;
+    }
+
+    @Override
+    public void run(@NotNull final ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        // 查找Java文件
+        indicator.setText("查找Java文件");
+        List<PsiFile> fileList = ApplicationManager.getApplication().runReadAction(new Computable<List<PsiFile>>() {
+            @Override
+            public List<PsiFile> compute() {
+                List<PsiFile> fileList = new ArrayList<>();
+                PsiManager psiManager = PsiManager.getInstance(myProject);
+                Collection<VirtualFile> virtualFiles = FileTypeIndex.getFiles(JavaFileType.INSTANCE, scope);
+                for (VirtualFile virtualFile : virtualFiles) {
+                    PsiFile psiFile = psiManager.findFile(virtualFile);
+                    if (psiFile instanceof PsiJavaFile) {
+                        fileList.add(psiFile);
+                    }
+                }
+                return fileList;
+            }
+        });
+        // 并行查找使用布局的类，每个任务自己执行可以被写操作打断的读操作，JobLauncher不再加读锁
+        indicator.setText("查找使用布局的类");
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(fileList, indicator, false, false, new Processor<PsiFile>() {
+            @Override
+            public boolean process(final PsiFile psiFile) {
+                runReadAction(new Runnable() {
+                    @Override
+                    public void run() {
+                        findTargets(psiFile);
+                    }
+                }, indicator);
+                return true;
+            }
+        });
+        // 并行解析布局
+        indicator.setText("解析布局");
+        List<String> layoutKeyList = new ArrayList<>(layoutContextMap.keySet());
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(layoutKeyList, indicator, false, false, new Processor<String>() {
+            @Override
+            public boolean process(final String layoutKey) {
+                runReadAction(new Runnable() {
+                    @Override
+                    public void run() {
+                        String layoutName = layoutKey.substring(layoutKey.lastIndexOf('/') + 1);
+                        LayoutResolver resolver = new LayoutResolver(myProject, layoutContextMap.get(layoutKey));
+                        // 在后台解析view的类型，写操作中不再查找类
+                        List<Element> elementList = ViewTypeResolver.resolveTypes(myProject, resolver.resolveUnique(layoutName));
+                        layoutNameSetMap.put(layoutKey, new HashSet<>(resolver.getResolvedLayoutNames()));
+                        layoutMap.put(layoutKey, elementList);
+                    }
+                }, indicator);
+                return true;
+            }
+        });
+        // 每个文件一次写操作
+        int index = 0;
+        for (final Map.Entry<PsiFile, List<Target>> entry : targetMap.entrySet()) {
+            indicator.checkCanceled();
+            indicator.setText("写入：" + entry.getKey().getName());
+            indicator.setFraction((double) index++ / targetMap.size());
+            ApplicationManager.getApplication().invokeAndWait(new Runnable() {
+                @Override
+                public void run() {
+                    writeFile(entry.getKey(), entry.getValue());
+                }
+            }, ModalityState.defaultModalityState());
+        }
+    }
+
+    /**
+     * 在读操作中执行，读操作被写操作打断时等待写操作完成再重新执行
+     * 调用时不能持有读锁，否则写操作无法开始，等待写操作时会和UI线程互相等待
+     * @param runnable 被打断时会重新执行，执行完成之前不能修改共享的结果
+     * @param indicator
+     */
+    private static void runReadAction(Runnable runnable, ProgressIndicator indicator) {
+        // 写操作会取消传入的进度，每次传入新的子进度，整个任务只在用户取消时停止
+        while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(runnable, new SensitiveProgressWrapper(indicator))) {
+            indicator.checkCanceled();
+            ProgressIndicatorUtils.yieldToPendingWriteActions();
+        }
+    }
+
+    /**
+     * 查找文件中使用布局的类（在读操作中执行）
+     * @param psiFile
+     */
+    private void findTargets(PsiFile psiFile) {
+        final Map<PsiClass, Set<String>> classMap = new LinkedHashMap<>();
+        psiFile.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitMethodCallExpression(PsiMethodCallExpression expression) {
+                super.visitMethodCallExpression(expression);
+                String layoutName = getLayoutName(expression);
+                if (layoutName == null) return;
+                PsiClass psiClass = PsiTreeUtil.getParentOfType(expression, PsiClass.class);
+                if (psiClass == null || psiClass instanceof PsiAnonymousClass) return;
+                Set<String> layoutNameSet = classMap.get(psiClass);
+                if (layoutNameSet == null) {
+                    layoutNameSet = new LinkedHashSet<>();
+                    classMap.put(psiClass, layoutNameSet);
+                }
+                layoutNameSet.add(layoutName);
+            }
+        });
+        if (classMap.isEmpty()) return;
+        List<Target> targetList = new ArrayList<>();
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(myProject);
+        // 和单个类的处理一样，从类所在的module开始查找布局
+        Module module = ModuleUtilCore.findModuleForPsiElement(psiFile);
+        String moduleName = module == null ? "" : module.getName();
+        int unsupported = 0;
+        for (Map.Entry<PsiClass, Set<String>> entry : classMap.entrySet()) {
+            PsiClass psiClass = entry.getKey();
+            boolean adapter = ViewHolderCreator.isAdapter(psiClass);
+            // 生成的initView中直接调用findViewById，Fragment等没有这个方法的类不支持
+            if (!adapter && psiClass.findMethodsByName("findViewById", true).length == 0) {
+                unsupported++;
+                continue;
+            }
+            targetList.add(new Target(pointerManager.createSmartPsiElementPointer(psiClass), moduleName, entry.getValue(), adapter));
+        }
+        unsupportedCount.addAndGet(unsupported);
+        if (targetList.isEmpty()) return;
+        for (Target target : targetList) {
+            for (String layoutName : target.layoutNameSet) {
+                layoutContextMap.put(getLayoutKey(moduleName, layoutName), psiFile);
+            }
+        }
+        targetMap.put(psiFile, targetList);
+    }
+
+    /**
+     * 布局缓存的key，module名/布局名（布局名中不会有/）
+     * @param moduleName 不在module中时为空字符串
+     * @param layoutName
+     * @return
+     */
+    private static String getLayoutKey(String moduleName, String layoutName) {
+        return moduleName + "/" + layoutName;
+    }
+
+    /**
+     * 获取setContentView(R.layout.x)、inflate(R.layout.x, ...)中的布局名
+     * @param expression
+     * @return
+     */
+    private static String getLayoutName(PsiMethodCallExpression expression) {
+        String methodName = expression.getMethodExpression().getReferenceName();
+        if (!"setContentView".equals(methodName) && !"inflate".equals(methodName)) return null;
+        PsiExpression[] arguments = expression.getArgumentList().getExpressions();
+        if (arguments.length == 0) return null;
+        String argument = arguments[0].getText().replaceAll("\\s", "");
+        if (!argument.startsWith("R.layout.")) return null;
+        return argument.substring(9);
+    }
+
+    /**
+     * 写入一个文件中所有类的代码（在UI线程中执行）
+     * @param psiFile
+     * @param targetList
+     */
+    private void writeFile(final PsiFile psiFile, final List<Target> targetList) {
+        if (myProject.isDisposed() || !psiFile.isValid()) return;
+        final LayoutSync layoutSync = LayoutSync.getInstance(myProject);
+        // 每个文件记录一次运行统计
+        Set<String> layoutNameSet = new LinkedHashSet<>();
+        for (Target target : targetList) {
+            layoutNameSet.addAll(target.layoutNameSet);
+        }
+        final RunStatistics statistics = new RunStatistics(StringUtil.join(layoutNameSet, ","));
+        new WriteCommandAction.Simple(myProject, psiFile) {
+            @Override
+            protected void run() throws Throwable {
+                int elementCount = 0;
+                for (Target target : targetList) {
+                    PsiClass psiClass = target.classPointer.getElement();
+                    if (psiClass == null) continue;
+                    if (target.adapter) {
+                        // 和单个类的处理一样，每个布局一个ViewHolder
+                        boolean generated = false;
+                        for (String layoutName : target.layoutNameSet) {
+                            List<Element> elementList = layoutMap.get(getLayoutKey(target.moduleName, layoutName));
+                            if (elementList == null || elementList.isEmpty()) continue;
+                            BaseCreator creator = new ViewHolderCreator(myProject, psiFile, psiClass, elementList, layoutName);
+                            creator.setStatistics(statistics);
+                            creator.generate();
+                            elementCount += elementList.size();
+                            generated = true;
+                        }
+                        if (!generated) continue;
+                    } else {
+                        List<Element> elementList = getElements(target);
+                        if (elementList.isEmpty()) continue;
+                        BaseCreator creator = new InitViewCreator(myProject, psiFile, psiClass, elementList);
+                        creator.setStatistics(statistics);
+                        creator.generate();
+                        elementCount += elementList.size();
+                    }
+                    classCount++;
+                    // 记录生成过代码的布局，布局修改后提示更新
+                    for (String layoutName : target.layoutNameSet) {
+                        String layoutKey = getLayoutKey(target.moduleName, layoutName);
+                        if (layoutMap.containsKey(layoutKey)) {
+                            layoutSync.register(psiClass, layoutName, layoutNameSetMap.get(layoutKey), layoutMap.get(layoutKey), target.adapter);
+                        }
+                    }
+                }
+                if (elementCount == 0) return;
+                // 各个类的阶段耗时累加，类名记录为文件名
+                statistics.setClassName(psiFile.getName());
+                statistics.setElementCount(elementCount);
+                InitViewStatistics.getInstance(myProject).add(statistics);
+            }
+        }.execute();
+    }
+
+    /**
+     * 合并类中用到的所有布局（类所在module的）的element，同一个id只保留第一个
+     * @param target
+     * @return
+     */
+    private List<Element> getElements(Target target) {
+        List<Element> elementList = new ArrayList<>();
+        Set<String> idSet = new HashSet<>();
+        for (String layoutName : target.layoutNameSet) {
+            List<Element> layoutElementList = layoutMap.get(getLayoutKey(target.moduleName, layoutName));
+            if (layoutElementList == null) continue;
+            for (Element element : layoutElementList) {
+                if (LayoutExpander.keepUnique(element, idSet)) {
+                    elementList.add(element);
+                }
+            }
+        }
+        return elementList;
+    }
+
+    @Override
+    public void onSuccess() {
+        String content = "处理了" + targetMap.size() + "个文件，" + classCount + "个类";
+        if (unsupportedCount.get() > 0) {
+            content += "，跳过" + unsupportedCount.get() + "个不能调用findViewById的类（如Fragment）";
+        }
+        new Notification("InitView", "InitView", content, NotificationType.INFORMATION).notify(myProject);
+    }
+
+    /**
+     * 需要生成代码的类和它用到的布局
+     */
+    private static class Target {
+
+        private SmartPsiElementPointer<PsiClass> classPointer;
+        // 类所在的module，不在module中时为空字符串
+        private String moduleName;
+        private Set<String> layoutNameSet;
+        // 是否是Adapter，是的话生成ViewHolder
+        private boolean adapter;
+
+        private Target(SmartPsiElementPointer<PsiClass> classPointer, String moduleName, Set<String> layoutNameSet, boolean adapter) {
+            this.classPointer = classPointer;
+            this.moduleName = moduleName;
+            this.layoutNameSet = layoutNameSet;
+            this.adapter = adapter;
+        }
+
+    }
+
+}
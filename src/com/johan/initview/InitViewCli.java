@@ -0,0 +1,294 @@
+package com.johan.initview;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 命令行入口，不依赖IDE，用于构建步骤中批量处理res目录下的布局
+ * java com.johan.initview.InitViewCli [--json | --java] [--out 目录] [--package 包名] [--r R类] [--rules 命名规则文件] [--threads 线程数] res目录...
+ * --json（默认）输出每个布局的id清单，--java为每个布局生成一个绑定类（activity_main -> ActivityMainViews）
+ */
+public class InitViewCli {
+
+    private boolean java;
+    private Path outDir;
+    private String packageName;
+    private String rClass;
+    private Path rulesFile;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private List<Path> resDirList = new ArrayList<>();
+
+    // 布局名 -> 各个版本（layout、layout-land等）的解析结果，按布局名排序保证输出稳定
+    private Map<String, List<LayoutInfo>> layoutMap = new TreeMap<>();
+    // 解析失败的文件数
+    private int errorCount;
+
+    public static void main(String[] args) {
+        InitViewCli cli = new InitViewCli();
+        if (!cli.parseArgs(args)) {
+            System.err.println("用法：InitViewCli [--json | --java] [--out 目录] [--package 包名] [--r R类] [--rules 命名规则文件] [--threads 线程数] res目录...");
+            System.exit(2);
+        }
+        try {
+            cli.run();
+        } catch (IOException | InterruptedException | IllegalArgumentException e) {
+            System.err.println("InitView：" + e.getMessage());
+            System.exit(1);
+        }
+        if (cli.errorCount > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * 解析命令行参数
+     * @param args
+     * @return 参数不正确时返回false
+     */
+    private boolean parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("--json".equals(arg)) {
+                java = false;
+            } else if ("--java".equals(arg)) {
+                java = true;
+            } else if (arg.startsWith("--")) {
+                if (i + 1 >= args.length) return false;
+                String value = args[++i];
+                if ("--out".equals(arg)) {
+                    outDir = Paths.get(value);
+                } else if ("--package".equals(arg)) {
+                    packageName = value;
+                } else if ("--r".equals(arg)) {
+                    rClass = value;
+                } else if ("--rules".equals(arg)) {
+                    rulesFile = Paths.get(value);
+                } else if ("--threads".equals(arg)) {
+                    try {
+                        threads = Math.max(1, Integer.parseInt(value));
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                } else {
+                    return false;
+                }
+            } else {
+                resDirList.add(Paths.get(arg));
+            }
+        }
+        // 生成Java文件时必须指定输出目录
+        return !resDirList.isEmpty() && (!java || outDir != null);
+    }
+
+    private void run() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<Path> fileList = findLayoutFiles();
+        scanLayoutFiles(fileList);
+        Expander expander = new Expander();
+        if (rulesFile != null) {
+            expander.setNamingRules(NamingRules.parse(new String(Files.readAllBytes(rulesFile), StandardCharsets.UTF_8)));
+        }
+        if (java) {
+            writeJava(expander);
+        } else {
+            writeJson(expander);
+        }
+        System.err.println("InitView：" + fileList.size() + "个文件，" + layoutMap.size() + "个布局，"
+                + errorCount + "个解析失败，耗时" + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    /**
+     * 查找res目录下layout*目录中的xml文件
+     * @return
+     * @throws IOException
+     */
+    private List<Path> findLayoutFiles() throws IOException {
+        List<Path> fileList = new ArrayList<>();
+        for (Path resDir : resDirList) {
+            try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(resDir, "layout*")) {
+                for (Path layoutDir : dirStream) {
+                    if (!Files.isDirectory(layoutDir)) continue;
+                    try (DirectoryStream<Path> fileStream = Files.newDirectoryStream(layoutDir, "*.xml")) {
+                        for (Path file : fileStream) {
+                            fileList.add(file);
+                        }
+                    }
+                }
+            }
+        }
+        return fileList;
+    }
+
+    /**
+     * 多线程并行读取和解析布局文件，每个文件在一个线程中完成
+     * @param fileList
+     * @throws InterruptedException
+     */
+    private void scanLayoutFiles(List<Path> fileList) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<LayoutInfo>> futureList = new ArrayList<>(fileList.size());
+            for (final Path file : fileList) {
+                futureList.add(executor.submit(new Callable<LayoutInfo>() {
+                    @Override
+                    public LayoutInfo call() throws Exception {
+                        return LayoutScanner.scan(Files.readAllBytes(file), file.getFileName().toString());
+                    }
+                }));
+            }
+            // 按文件顺序收集结果，同名布局的各个版本顺序和查找顺序一致
+            for (int i = 0; i < fileList.size(); i++) {
+                Path file = fileList.get(i);
+                LayoutInfo layoutInfo;
+                try {
+                    layoutInfo = futureList.get(i).get();
+                } catch (ExecutionException e) {
+                    System.err.println("InitView：解析失败 " + file + "：" + e.getCause().getMessage());
+                    errorCount++;
+                    continue;
+                }
+                String fileName = file.getFileName().toString();
+                String layoutName = fileName.substring(0, fileName.length() - ".xml".length());
+                List<LayoutInfo> layoutInfoList = layoutMap.get(layoutName);
+                if (layoutInfoList == null) {
+                    layoutInfoList = new ArrayList<>();
+                    layoutMap.put(layoutName, layoutInfoList);
+                }
+                layoutInfoList.add(layoutInfo);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 输出JSON清单，指定输出目录时写入layouts.json，否则输出到标准输出
+     * @param expander
+     * @throws IOException
+     */
+    private void writeJson(Expander expander) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        builder.append("{\"layouts\":[");
+        boolean firstLayout = true;
+        for (String layoutName : layoutMap.keySet()) {
+            if (!firstLayout) builder.append(",");
+            firstLayout = false;
+            builder.append("\n{\"name\":").append(JsonUtils.quote(layoutName));
+            builder.append(",\"elements\":");
+            appendElements(builder, expander.resolveUnique(layoutName));
+            builder.append("}");
+        }
+        builder.append("\n],\"cycles\":[");
+        for (int i = 0; i < expander.getCycleList().size(); i++) {
+            if (i > 0) builder.append(",");
+            builder.append(JsonUtils.quote(expander.getCycleList().get(i)));
+        }
+        builder.append("],\"conflicts\":[");
+        List<String> conflictList = expander.getConflictList();
+        for (int i = 0; i < conflictList.size(); i++) {
+            if (i > 0) builder.append(",");
+            builder.append(JsonUtils.quote(conflictList.get(i)));
+        }
+        builder.append("]}\n");
+        if (outDir == null) {
+            PrintStream out = new PrintStream(System.out, false, "UTF-8");
+            out.print(builder);
+            out.flush();
+        } else {
+            Files.createDirectories(outDir);
+            Files.write(outDir.resolve("layouts.json"), builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 写入element数组，ViewStub带上其布局中的element
+     * @param builder
+     * @param elementList
+     */
+    private static void appendElements(StringBuilder builder, List<Element> elementList) {
+        builder.append("[");
+        boolean firstElement = true;
+        for (Element element : elementList) {
+            if (!firstElement) builder.append(",");
+            firstElement = false;
+            builder.append("{\"id\":").append(JsonUtils.quote(element.isValidId() ? element.getId() : null));
+            builder.append(",\"type\":").append(JsonUtils.quote(element.getQualifiedName()));
+            builder.append(",\"field\":").append(JsonUtils.quote(element.isValidId() ? element.getFieldName() : null));
+            builder.append(",\"clickable\":").append(element.isClickable());
+            builder.append(",\"onClick\":").append(JsonUtils.quote(element.getOnClick()));
+            if (element.isViewStub()) {
+                builder.append(",\"stub\":{\"layout\":").append(JsonUtils.quote(element.getStubLayout()));
+                builder.append(",\"inflatedId\":").append(JsonUtils.quote(element.getInflatedId()));
+                builder.append(",\"elements\":");
+                appendElements(builder, element.getStubElementList());
+                builder.append("}");
+            }
+            builder.append("}");
+        }
+        builder.append("]");
+    }
+
+    /**
+     * 每个布局生成一个绑定类，构造方法中findViewById
+     * @param expander
+     * @throws IOException
+     */
+    private void writeJava(Expander expander) throws IOException {
+        Path dir = outDir;
+        if (packageName != null) {
+            dir = outDir.resolve(packageName.replace('.', '/'));
+        }
+        Files.createDirectories(dir);
+        for (String layoutName : layoutMap.keySet()) {
+            List<Element> elementList = expander.resolveUnique(layoutName);
+            String className = BindingCode.toClassName(layoutName) + "Views";
+            StringBuilder builder = new StringBuilder();
+            if (packageName != null) {
+                builder.append("package ").append(packageName).append(";\n\n");
+            }
+            if (rClass != null) {
+                builder.append("import ").append(rClass).append(";\n");
+            }
+            // 系统view在布局中只有类名，通过import引用，包和LayoutInflater查找的包一致（如WebView在android.webkit中）
+            // 自定义view使用标签中的全限定名
+            builder.append("import android.app.*;\n");
+            builder.append("import android.view.*;\n");
+            builder.append("import android.webkit.*;\n");
+            builder.append("import android.widget.*;\n\n");
+            BindingCode.appendHolderClass(builder, "public", "public", className, null, elementList);
+            builder.append("\n");
+            Files.write(dir.resolve(className + ".java"), builder.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * 从解析结果中展开include
+     */
+    private class Expander extends LayoutExpander {
+
+        @Override
+        public LayoutInfo getLayout(String layoutName) {
+            List<LayoutInfo> layoutInfoList = layoutMap.get(layoutName);
+            if (layoutInfoList == null) {
+                return null;
+            }
+            return merge(layoutName, layoutInfoList);
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.johan.initview;
+
+import com.intellij.openapi.options.Configurable;
+import com.intellij.openapi.options.ConfigurationException;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * InitView设置页面（Settings -> Other Settings -> InitView）
+ */
+public class InitViewConfigurable implements Configurable {
+
+    private Project project;
+
+    private JPanel panel;
+    private JComboBox<InitViewSettings.BindMode> bindModeComboBox;
+    private JCheckBox autoSyncCheckBox;
+    private JTextArea namingRulesTextArea;
+
+    public InitViewConfigurable(Project project) {
+        this.project = project;
+    }
+
+    @Nls
+    @Override
+    public String getDisplayName() {
+        return "InitView";
+    }
+
+    @Nullable
+    @Override
+    public String getHelpTopic() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public JComponent createComponent() {
+        bindModeComboBox = new JComboBox<>(InitViewSettings.BindMode.values());
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        GridBagConstraints constraints = new GridBagConstraints();
+        constraints.anchor = GridBagConstraints.WEST;
+        constraints.insets = new Insets(2, 2, 2, 8);
+        constraints.gridx = 0;
+        constraints.gridy = 0;
+        formPanel.add(new JLabel("初始化View方式："), constraints);
+        constraints.gridx = 1;
+        formPanel.add(bindModeComboBox, constraints);
+        autoSyncCheckBox = new JCheckBox("布局修改后提示更新已生成的代码");
+        constraints.gridx = 0;
+        constraints.gridy = 1;
+        constraints.gridwidth = 2;
+        formPanel.add(autoSyncCheckBox, constraints);
+        constraints.gridy = 2;
+        formPanel.add(new JLabel("字段命名规则（类名后缀=字段后缀，*=默认后缀，prefix=是否去掉布局前缀）："), constraints);
+        namingRulesTextArea = new JTextArea(10, 40);
+        constraints.gridy = 3;
+        constraints.fill = GridBagConstraints.HORIZONTAL;
+        formPanel.add(new JScrollPane(namingRulesTextArea), constraints);
+        panel = new JPanel(new BorderLayout());
+        panel.add(formPanel, BorderLayout.NORTH);
+        reset();
+        return panel;
+    }
+
+    @Override
+    public boolean isModified() {
+        return bindModeComboBox.getSelectedItem() != InitViewSettings.getBindMode(project)
+                || autoSyncCheckBox.isSelected() != InitViewSettings.isAutoSync(project)
+                || !namingRulesTextArea.getText().equals(InitViewSettings.getNamingRules(project).getText());
+    }
+
+    @Override
+    public void apply() throws ConfigurationException {
+        NamingRules namingRules;
+        try {
+            namingRules = NamingRules.parse(namingRulesTextArea.getText());
+        } catch (IllegalArgumentException e) {
+            throw new ConfigurationException(e.getMessage(), "字段命名规则格式不正确");
+        }
+        InitViewSettings.setNamingRules(project, namingRules);
+        InitViewSettings.setBindMode(project, (InitViewSettings.BindMode) bindModeComboBox.getSelectedItem());
+        InitViewSettings.setAutoSync(project, autoSyncCheckBox.isSelected());
+    }
+
+    @Override
+    public void reset() {
+        bindModeComboBox.setSelectedItem(InitViewSettings.getBindMode(project));
+        autoSyncCheckBox.setSelected(InitViewSettings.isAutoSync(project));
+        namingRulesTextArea.setText(InitViewSettings.getNamingRules(project).getText());
+    }
+
+    @Override
+    public void disposeUIResources() {
+        panel = null;
+        bindModeComboBox = null;
+        autoSyncCheckBox = null;
+        namingRulesTextArea = null;
+    }
+
+}
@@ -1,179 +1,272 @@
 package com.johan.initview;
 
-import com.intellij.codeInsight.actions.ReformatCodeProcessor;
-import com.intellij.openapi.command.WriteCommandAction;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
-import com.intellij.psi.codeStyle.JavaCodeStyleManager;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
-public class InitViewCreator extends WriteCommandAction.Simple {
+public class InitViewCreator extends BaseCreator {
 
     private List<Element> elementList;
-    private Project project;
-    private PsiFile psiFile;
     private PsiClass psiClass;
-    private PsiElementFactory factory;
+    // 类已有成员的索引
+    private ClassMemberIndex memberIndex;
+    // 初始化View的方式
+    private InitViewSettings.BindMode bindMode;
 
+    /**
+     * @param project
+     * @param psiFile
+     * @param psiClass
+     * @param elementList 已经在后台解析了类型（ViewTypeResolver.resolveTypes），写操作中不再查找类
+     */
     protected InitViewCreator(Project project, PsiFile psiFile, PsiClass psiClass, List<Element> elementList) {
         super(project, psiFile);
-        this.project = project;
-        this.psiFile = psiFile;
         this.psiClass = psiClass;
-        this.factory = JavaPsiFacade.getElementFactory(project);
         this.elementList = elementList;
+        this.bindMode = InitViewSettings.getBindMode(project);
     }
 
     @Override
-    protected void run() throws Throwable {
+    void generate() {
+        statistics.setClassName(psiClass.getName());
+        long start = System.nanoTime();
+        memberIndex = new ClassMemberIndex(psiClass);
+        statistics.addPhase("index", start);
+        start = System.nanoTime();
         buildViewField();
+        statistics.addPhase("buildViewField", start);
+        start = System.nanoTime();
         buildInitViewMethod();
+        statistics.addPhase("buildInitViewMethod", start);
+        start = System.nanoTime();
+        buildInflateStubMethod();
+        statistics.addPhase("buildInflateStubMethod", start);
+        start = System.nanoTime();
         buildOnClickMethod();
+        statistics.addPhase("buildOnClickMethod", start);
+        start = System.nanoTime();
         if (buildClickableMethod()) {
             importOnClickListener();
         }
-        // 重写class
-        JavaCodeStyleManager styleManager = JavaCodeStyleManager.getInstance(project);
-        styleManager.optimizeImports(psiFile);
-        styleManager.shortenClassReferences(psiClass);
-        new ReformatCodeProcessor(project, psiClass.getContainingFile(), null, false).runWithoutProgress();
+        statistics.addPhase("buildClickableMethod", start);
+        // 只处理写入的代码，处理耗时和写入的代码量相关，和文件大小无关
+        formatInserted();
     }
 
     /**
      * 创建View字段
      */
     private void buildViewField() {
-        for (Element element : elementList) {
+        StringBuilder fieldBuilder = new StringBuilder();
+        for (Element element : getAllElements()) {
             // 如果不是有效的id
             if (!element.isValidId()) continue;
             // 如果已经有了这个字段
-            if (hasField(element.getFieldName())) continue;
-            String field = "private " + element.getName() + " " + element.getFieldName() + ";";
-            // 写入字段
-            psiClass.add(factory.createFieldFromText(field, psiClass));
-        }
-    }
-
-    /**
-     * 判断是否存在field字段
-     * @param field
-     * @return
-     */
-    private boolean hasField(String field) {
-        // 获取这个类所有的字段
-        PsiField[] psiFields = psiClass.getAllFields();
-        for (PsiField psiField : psiFields) {
-            if (psiField.getName().equals(field)) {
-                return true;
-            }
+            if (memberIndex.hasField(element.getFieldName())) continue;
+            BindingCode.appendField(fieldBuilder, "private", element);
+            memberIndex.addField(element.getFieldName());
         }
-        return false;
+        // 所有字段一次写入，放在最后一个字段后面
+        PsiField[] psiFields = psiClass.getFields();
+        addMembers(psiClass, fieldBuilder, psiFields.length == 0 ? psiClass.getLBrace() : psiFields[psiFields.length - 1]);
     }
 
     /**
      * 创建initView方法
      */
     private void buildInitViewMethod() {
-        PsiMethod psiMethod = getMethod("initView");
-        // 如果initView方法已经存在
-        if (psiMethod != null) {
-            for (Element element : elementList) {
-                // 如果不是有效的id
-                if (!element.isValidId()) continue;
-                // 写入初始化view
-                String insertCode = element.getFieldName() + " = (" + element.getName() + ")" + " findViewById(" + element.getFullId() + ");";
-                if (!containTextInMethod(psiMethod, insertCode)) {
-                    // 在方法内写入insertCode语句
-                    psiMethod.getBody().add(factory.createStatementFromText(insertCode, psiClass));
-                }
-                // // 如果不是按钮，也没有标志clickable
-                if (!element.isButton() || !element.isClickable()) continue;
-                //  如果标志onClick
-                if (element.getOnClick() != null) continue;
-                // 添加
-                insertCode = element.getFieldName() + ".setOnClickListener(this);";
-                if (!containTextInMethod(psiMethod, insertCode)) {
-                    // 在方法内写入insertCode语句
-                    psiMethod.getBody().add(factory.createStatementFromText(insertCode, psiClass));
-                }
-            }
-            return;
+        boolean traversal = bindMode == InitViewSettings.BindMode.SINGLE_TRAVERSAL;
+        boolean lazy = bindMode == InitViewSettings.BindMode.LAZY;
+        if (traversal) {
+            buildBindViewMethod();
+        } else if (lazy) {
+            buildLazyGetterMethod();
+        }
+        StringBuilder codeBuilder = new StringBuilder();
+        // 遍历View树的方式，在initView中调用一次bindView
+        if (traversal && !memberIndex.isBindViewCalled()) {
+            codeBuilder.append("bindView(findViewById(android.R.id.content));\n");
         }
-        // initView方法不存在
-        StringBuilder methodBuilder = new StringBuilder();
-        methodBuilder.append("private void initView() {").append("\n");
         for (Element element : elementList) {
             // 如果不是有效的id
             if (!element.isValidId()) continue;
-            methodBuilder.append(element.getFieldName()).append(" = ").append("(").append(element.getName()).append(")")
-                    .append(" findViewById(").append(element.getFullId()).append(");").append("\n");
+            // 写入初始化view
+            if (!traversal && !lazy && !memberIndex.isBound(element)) {
+                BindingCode.appendFindViewById(codeBuilder, null, element);
+            }
             // 如果不是按钮，也没有标志clickable
             if (!element.isButton() || !element.isClickable()) continue;
             // 如果标志onClick
             if (element.getOnClick() != null) continue;
             // 添加
-            methodBuilder.append(element.getFieldName()).append(".setOnClickListener(this);\n");
+            if (!memberIndex.hasClickListener(element)) {
+                // 延迟初始化的方式通过get方法获取view
+                BindingCode.appendClickListener(codeBuilder, element, lazy);
+            }
+        }
+        PsiMethod psiMethod = memberIndex.getMethod("initView");
+        // 如果initView方法已经存在
+        if (psiMethod != null && psiMethod.getBody() != null) {
+            // 所有语句一次写入方法末尾
+            addStatements(psiMethod.getBody(), codeBuilder);
+            return;
+        }
+        // 延迟初始化的方式，没有需要设置点击事件的view时不需要initView方法
+        if (lazy && codeBuilder.length() == 0) {
+            return;
         }
-        methodBuilder.append("}");
+        // initView方法不存在
+        String method = "private void initView() {\n" + codeBuilder + "}";
         // 写入方法
-        psiClass.add(factory.createMethodFromText(methodBuilder.toString(), psiClass));
+        markInserted(psiClass.add(factory.createMethodFromText(method, psiClass)));
         // initView方法生成后，在onCreate方法内写入initView();语句
-        PsiMethod onCreateMethod = getMethod("onCreate");
-        if (onCreateMethod != null) {
+        PsiMethod onCreateMethod = memberIndex.getMethod("onCreate");
+        if (onCreateMethod != null && onCreateMethod.getBody() != null) {
             // 判断是否已经写入了
-            if (containTextInMethod(onCreateMethod, "initView")) {
+            if (memberIndex.isInitViewCalled()) {
                 return;
             }
             // 写入initView语句
-            onCreateMethod.getBody().add(factory.createStatementFromText("initView();", psiClass));
+            markInserted(onCreateMethod.getBody().add(factory.createStatementFromText("initView();", psiClass)));
         }
     }
 
     /**
-     * 获取方法
-     * @param method
-     * @return
+     * 创建延迟初始化的get方法，第一次调用时才findViewById，之后直接返回字段
      */
-    private PsiMethod getMethod(String method) {
-        // 获取类所有方法
-        PsiMethod[] psiMethods = psiClass.getAllMethods();
-        for (PsiMethod psiMethod : psiMethods) {
-            if (psiMethod.getName().equals(method)) {
-                return psiMethod;
+    private void buildLazyGetterMethod() {
+        StringBuilder methodBuilder = new StringBuilder();
+        for (Element element : elementList) {
+            // 如果不是有效的id
+            if (!element.isValidId()) continue;
+            // 如果已经有了这个get方法
+            if (memberIndex.getMethod(element.getGetterName()) != null) continue;
+            BindingCode.appendLazyGetter(methodBuilder, element);
+        }
+        // 所有方法一次写入类末尾
+        addMembers(psiClass, methodBuilder, psiClass.getRBrace().getPrevSibling());
+    }
+
+    /**
+     * 创建bindView方法，遍历一次View树，通过switch按id给字段赋值
+     * 代替每个id调用一次findViewById（每次都要搜索View树）
+     */
+    private void buildBindViewMethod() {
+        StringBuilder caseBuilder = new StringBuilder();
+        for (Element element : elementList) {
+            // 如果不是有效的id
+            if (!element.isValidId()) continue;
+            if (memberIndex.isBound(element)) continue;
+            BindingCode.appendBindCase(caseBuilder, element);
+        }
+        PsiMethod psiMethod = memberIndex.getMethod("bindView");
+        // 如果bindView方法已经存在
+        if (psiMethod != null && psiMethod.getBody() != null) {
+            if (caseBuilder.length() == 0) return;
+            PsiCodeBlock body = psiMethod.getBody();
+            PsiSwitchStatement switchStatement = findSwitchStatement(psiMethod);
+            if (switchStatement == null || switchStatement.getBody() == null) {
+                // 如果没有找到switch块，在方法开头写入switch块
+                PsiStatement statement = factory.createStatementFromText("switch (view.getId()) {\n" + caseBuilder + "}", psiClass);
+                markInserted(body.addAfter(statement, body.getLBrace()));
+                return;
             }
+            // 所有case一次写入switch块
+            addStatements(switchStatement.getBody(), caseBuilder);
+            return;
         }
-        return null;
+        // bindView方法不存在
+        String method = BindingCode.getBindViewMethod(caseBuilder);
+        markInserted(psiClass.add(factory.createMethodFromText(method, psiClass)));
     }
 
     /**
-     * 判断method方法内是否包含text内容
-     * @param method
-     * @param text
-     * @return
+     * 创建inflate ViewStub的方法，ViewStub布局中的view在调用时才inflate和findViewById，不在initView中初始化
+     * 没有id的ViewStub生成bindXxx(View)方法，由inflate的代码传入inflate出的view
      */
-    private boolean containTextInMethod(PsiMethod method, String text) {
-        PsiCodeBlock codeBlock = method.getBody();
-        PsiStatement[] statements = codeBlock.getStatements();
-        for (PsiStatement statement : statements) {
-            if (statement.getText().contains(text)) {
-                return true;
+    private void buildInflateStubMethod() {
+        boolean lazy = bindMode == InitViewSettings.BindMode.LAZY;
+        StringBuilder methodBuilder = new StringBuilder();
+        Set<String> methodSet = new HashSet<>();
+        for (Element element : getAllElements()) {
+            if (!element.isViewStub()) continue;
+            if (element.getStubElementList().isEmpty()) continue;
+            // 没有id的ViewStub不能在代码中获取，只生成从inflate出的view初始化的方法
+            boolean inflate = element.isValidId();
+            String methodName = inflate ? BindingCode.getInflateMethodName(element) : BindingCode.getBindStubMethodName(element);
+            // 多个没有id的ViewStub使用同一个布局
+            if (!methodSet.add(methodName)) continue;
+            PsiMethod psiMethod = memberIndex.getMethod(methodName);
+            if (psiMethod != null) {
+                // 已经初始化的view不再写入
+                memberIndex.indexBindingMethod(psiMethod);
+            }
+            StringBuilder codeBuilder = new StringBuilder();
+            for (Element stubElement : element.getStubElementList()) {
+                // 如果不是有效的id
+                if (!stubElement.isValidId()) continue;
+                if (!memberIndex.isBound(stubElement)) {
+                    BindingCode.appendFindViewById(codeBuilder, "view", stubElement);
+                }
+                // 如果不是按钮，也没有标志clickable，或者标志了onClick
+                if (!stubElement.isButton() || !stubElement.isClickable() || stubElement.getOnClick() != null) continue;
+                if (!memberIndex.hasClickListener(stubElement)) {
+                    BindingCode.appendClickListener(codeBuilder, stubElement, false);
+                }
+            }
+            // 如果inflate方法已经存在
+            if (psiMethod != null && psiMethod.getBody() != null) {
+                // 所有语句一次写入方法末尾
+                addStatements(psiMethod.getBody(), codeBuilder);
+                continue;
+            }
+            if (inflate) {
+                BindingCode.appendInflateStubMethod(methodBuilder, element, lazy, codeBuilder);
+            } else if (codeBuilder.length() > 0) {
+                BindingCode.appendBindStubMethod(methodBuilder, element, codeBuilder);
             }
         }
-        return false;
+        // 所有方法一次写入类末尾
+        addMembers(psiClass, methodBuilder, psiClass.getRBrace().getPrevSibling());
+    }
+
+    /**
+     * 布局中的element和ViewStub布局中的element，用于生成字段、inflate方法和点击事件
+     * @return
+     */
+    private List<Element> getAllElements() {
+        List<Element> allElementList = new ArrayList<>();
+        addAllElements(allElementList, elementList);
+        return allElementList;
+    }
+
+    private void addAllElements(List<Element> allElementList, List<Element> elementList) {
+        for (Element element : elementList) {
+            allElementList.add(element);
+            // ViewStub布局中还可以有ViewStub
+            addAllElements(allElementList, element.getStubElementList());
+        }
     }
 
     /**
      * 创建布局文件制定OnClick方法
      */
     private void buildOnClickMethod() {
-        for (Element element : elementList) {
+        StringBuilder methodBuilder = new StringBuilder();
+        Set<String> methodSet = new HashSet<>();
+        for (Element element : getAllElements()) {
             if (element.getOnClick() == null) continue;
-            if (getMethod(element.getOnClick()) != null) continue;
-            String insertMethod = "public void " + element.getOnClick() + " (View view) {\n\n}\n";
-            // 写入方法
-            psiClass.add(factory.createMethodFromText(insertMethod, psiClass));
+            if (memberIndex.hasMethod(element.getOnClick())) continue;
+            // 多个view使用同一个onClick方法
+            if (!methodSet.add(element.getOnClick())) continue;
+            BindingCode.appendOnClickMethod(methodBuilder, element.getOnClick());
         }
+        // 所有方法一次写入类末尾
+        addMembers(psiClass, methodBuilder, psiClass.getRBrace().getPrevSibling());
     }
 
     /**
@@ -181,26 +274,29 @@ public class InitViewCreator extends WriteCommandAction.Simple {
      * @return
      */
     private boolean buildClickableMethod() {
-        PsiMethod psiMethod = getMethod("onClick");
+        PsiMethod psiMethod = memberIndex.getMethod("onClick");
         // 如果onClick方法已经存在
-        if (psiMethod != null) {
-            for (Element element : elementList) {
+        if (psiMethod != null && psiMethod.getBody() != null) {
+            StringBuilder caseBuilder = new StringBuilder();
+            for (Element element : getAllElements()) {
                 if (element.getOnClick() != null) continue;
                 // 如果同时设置onClick和clickable，clickable不起作用
                 if (!element.isButton() || !element.isClickable()) continue;
-                String insertCode = "case " + element.getFullId() + ":";
-                if (containTextInMethod(psiMethod, insertCode)) continue;
-                // 找到第一个switch块
-                PsiSwitchStatement switchStatement = findSwitchStatement(psiMethod);
-                if (switchStatement == null) {
-                    // 如果没有找到switch块，写入switch块
-                    psiMethod.getBody().add(factory.createStatementFromText("switch(view.getId()) {\n" + insertCode + "\nbreak;\n}", psiClass));
-                    continue;
-                }
-                // 在switch块内写入case
-                switchStatement.getBody().add(factory.createStatementFromText(insertCode, psiClass));
-                switchStatement.getBody().add(factory.createStatementFromText("break;", psiClass));
+                if (memberIndex.hasCase(element)) continue;
+                BindingCode.appendClickCase(caseBuilder, element);
+            }
+            if (caseBuilder.length() == 0) {
+                return false;
             }
+            // 找到第一个switch块
+            PsiSwitchStatement switchStatement = findSwitchStatement(psiMethod);
+            if (switchStatement == null || switchStatement.getBody() == null) {
+                // 如果没有找到switch块，写入switch块
+                markInserted(psiMethod.getBody().add(factory.createStatementFromText("switch(view.getId()) {\n" + caseBuilder + "}", psiClass)));
+                return false;
+            }
+            // 所有case一次写入switch块
+            addStatements(switchStatement.getBody(), caseBuilder);
             return false;
         }
         // onClick方法不存在
@@ -209,38 +305,21 @@ public class InitViewCreator extends WriteCommandAction.Simple {
         methodBuilder.append("public void onClick(View view) {").append("\n");
         methodBuilder.append("switch(view.getId()) {");
         boolean hasClickable = false;
-        for (Element element : elementList) {
+        for (Element element : getAllElements()) {
             if (element.getOnClick() != null) continue;
             if (!element.isButton() || !element.isClickable()) continue;
             hasClickable = true;
-            methodBuilder.append("case ").append(element.getFullId()).append(":\nbreak;\n");
+            BindingCode.appendClickCase(methodBuilder, element);
         }
         methodBuilder.append("}\n}");
         // 判断是否设置了点击事件(clickable)
         if (hasClickable) {
             //写入方法
-            psiClass.add(factory.createMethodFromText(methodBuilder.toString(), psiClass));
+            markInserted(psiClass.add(factory.createMethodFromText(methodBuilder.toString(), psiClass)));
         }
         return hasClickable;
     }
 
-    /**
-     * 查找method方法内的switch
-     * @param method
-     * @return
-     */
-    private PsiSwitchStatement findSwitchStatement(PsiMethod method) {
-        PsiCodeBlock codeBlock = method.getBody();
-        PsiStatement[] statements = codeBlock.getStatements();
-        for (PsiStatement statement : statements) {
-            if (statement instanceof PsiSwitchStatement) {
-                PsiSwitchStatement switchStatement = (PsiSwitchStatement) statement;
-                return switchStatement;
-            }
-        }
-        return null;
-    }
-
     /**
      * 类实现OnClickListener接口
      */
@@ -257,7 +336,7 @@ public class InitViewCreator extends WriteCommandAction.Simple {
             PsiJavaCodeReferenceElement referenceElementByFQClassName =
                     factory.createReferenceElementByFQClassName("android.view.View.OnClickListener", psiClass.getResolveScope());
             if (implementsList != null) {
-                implementsList.add(referenceElementByFQClassName);
+                markInserted(implementsList.add(referenceElementByFQClassName));
             }
         }
     }
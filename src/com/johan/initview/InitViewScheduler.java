@@ -0,0 +1,103 @@
+package com.johan.initview;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 同一个目标类同时只有一次InitView在进行（只在UI线程中使用）
+ * 重复请求同一个布局时合并为一次，请求新的布局时取消正在进行的解析，和之前的布局一起重新解析，一次写入
+ */
+public class InitViewScheduler {
+
+    private final Project project;
+    // 目标类 -> 正在进行的请求
+    private final Map<PsiClass, Job> jobMap = new HashMap<>();
+
+    public static InitViewScheduler getInstance(Project project) {
+        return ServiceManager.getService(project, InitViewScheduler.class);
+    }
+
+    public InitViewScheduler(Project project) {
+        this.project = project;
+    }
+
+    /**
+     * 请求为光标所在的类生成布局的代码
+     * @param editor
+     * @param psiFile
+     * @param layoutName
+     */
+    public void schedule(Editor editor, PsiFile psiFile, String layoutName) {
+        PsiClass psiClass = Utils.getTargetClass(editor, psiFile);
+        if (psiClass == null) {
+            ViewUtils.showPopupBalloon(editor, "没有找到目标类");
+            return;
+        }
+        Job job = jobMap.get(psiClass);
+        if (job == null) {
+            job = new Job();
+            job.layoutNameSet.add(layoutName);
+            jobMap.put(psiClass, job);
+        } else if (!job.layoutNameSet.add(layoutName)) {
+            // 同一个布局正在处理，不需要重复处理
+            return;
+        } else {
+            // 取消正在进行的解析，和新的布局一起重新解析
+            job.task.cancel();
+        }
+        start(job, editor, psiFile);
+    }
+
+    /**
+     * 解析期间PSI发生变化，重新解析
+     * @param task
+     */
+    public void restart(InitViewTask task) {
+        for (Job job : jobMap.values()) {
+            if (job.task == task) {
+                start(job, task.getEditor(), task.getPsiFile());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 任务完成（写入完成、失败或者被取消）
+     * @param task
+     */
+    public void finished(InitViewTask task) {
+        for (Map.Entry<PsiClass, Job> entry : jobMap.entrySet()) {
+            if (entry.getValue().task == task) {
+                jobMap.remove(entry.getKey());
+                return;
+            }
+        }
+    }
+
+    private void start(Job job, Editor editor, PsiFile psiFile) {
+        job.task = new InitViewTask(project, editor, psiFile, new ArrayList<>(job.layoutNameSet));
+        job.task.queue();
+    }
+
+    /**
+     * 一个目标类的请求
+     */
+    private static class Job {
+
+        // 请求的布局，按请求顺序
+        private Set<String> layoutNameSet = new LinkedHashSet<>();
+        // 当前的任务，取消后替换为新的任务
+        private InitViewTask task;
+
+    }
+
+}
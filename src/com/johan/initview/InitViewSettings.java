@@ -0,0 +1,90 @@
+package com.johan.initview;
+
+import com.intellij.ide.util.PropertiesComponent;
+import com.intellij.openapi.project.Project;
+
+/**
+ * 项目级别的InitView设置，保存在PropertiesComponent中
+ */
+public class InitViewSettings {
+
+    /**
+     * 生成初始化View代码的方式
+     */
+    public enum BindMode {
+        // 每个id调用一次findViewById
+        FIND_VIEW_BY_ID("findViewById"),
+        // 遍历一次View树，按id分发赋值
+        SINGLE_TRAVERSAL("遍历一次View树"),
+        // 生成getXxx方法，第一次使用时才findViewById
+        LAZY("首次使用时初始化");
+
+        private String text;
+
+        BindMode(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    private static final String KEY_BIND_MODE = "com.johan.initview.bindMode";
+    private static final String KEY_AUTO_SYNC = "com.johan.initview.autoSync";
+    private static final String KEY_NAMING_RULES = "com.johan.initview.namingRules";
+
+    public static BindMode getBindMode(Project project) {
+        String value = PropertiesComponent.getInstance(project).getValue(KEY_BIND_MODE);
+        if (value != null) {
+            for (BindMode bindMode : BindMode.values()) {
+                if (bindMode.name().equals(value)) {
+                    return bindMode;
+                }
+            }
+        }
+        return BindMode.FIND_VIEW_BY_ID;
+    }
+
+    public static void setBindMode(Project project, BindMode bindMode) {
+        PropertiesComponent.getInstance(project).setValue(KEY_BIND_MODE, bindMode.name(), BindMode.FIND_VIEW_BY_ID.name());
+    }
+
+    /**
+     * 布局修改后是否提示更新已生成的代码
+     * @param project
+     * @return
+     */
+    public static boolean isAutoSync(Project project) {
+        return PropertiesComponent.getInstance(project).getBoolean(KEY_AUTO_SYNC, false);
+    }
+
+    public static void setAutoSync(Project project, boolean autoSync) {
+        PropertiesComponent.getInstance(project).setValue(KEY_AUTO_SYNC, autoSync, false);
+    }
+
+    /**
+     * 字段命名规则，规则文本没有变化时不重复解析
+     * @param project
+     * @return 规则格式不正确时使用默认规则
+     */
+    public static NamingRules getNamingRules(Project project) {
+        String text = PropertiesComponent.getInstance(project).getValue(KEY_NAMING_RULES);
+        if (text == null) {
+            return NamingRules.DEFAULT;
+        }
+        try {
+            return NamingRules.parse(text);
+        } catch (IllegalArgumentException e) {
+            return NamingRules.DEFAULT;
+        }
+    }
+
+    public static void setNamingRules(Project project, NamingRules namingRules) {
+        PropertiesComponent.getInstance(project).setValue(KEY_NAMING_RULES, namingRules.getText(), NamingRules.DEFAULT_TEXT);
+        // 字段名变化，已经缓存的分析结果需要重新计算
+        LayoutSync.getInstance(project).layoutsChanged();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.johan.initview;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 项目级别的InitView运行统计，保留最近的运行记录
+ */
+public class InitViewStatistics {
+
+    // 最多保留的记录数
+    private static final int MAX_HISTORY = 100;
+
+    private final LinkedList<RunStatistics> history = new LinkedList<>();
+
+    public static InitViewStatistics getInstance(Project project) {
+        return ServiceManager.getService(project, InitViewStatistics.class);
+    }
+
+    public synchronized void add(RunStatistics statistics) {
+        history.addLast(statistics);
+        while (history.size() > MAX_HISTORY) {
+            history.removeFirst();
+        }
+    }
+
+    public synchronized List<RunStatistics> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * 最近一次运行
+     * @return 没有运行过时返回null
+     */
+    public synchronized RunStatistics getLast() {
+        return history.isEmpty() ? null : history.getLast();
+    }
+
+    /**
+     * 导出所有记录为JSON（phases中的耗时单位为微秒）
+     * @return
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[\n");
+        List<RunStatistics> historyList = getHistory();
+        for (int i = 0; i < historyList.size(); i++) {
+            builder.append("  ");
+            historyList.get(i).toJson(builder);
+            builder.append(i == historyList.size() - 1 ? "\n" : ",\n");
+        }
+        builder.append("]\n");
+        return builder.toString();
+    }
+
+}
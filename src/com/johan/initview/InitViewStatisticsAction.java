@@ -0,0 +1,32 @@
+package com.johan.initview;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.PlatformDataKeys;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.project.Project;
+
+/**
+ * 显示最近一次InitView运行的各阶段耗时
+ */
+public class InitViewStatisticsAction extends AnAction {
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = event.getProject();
+        if (project == null) {
+            return;
+        }
+        RunStatistics statistics = InitViewStatistics.getInstance(project).getLast();
+        String content = statistics == null ? "还没有运行过InitView" : statistics.toHtml();
+        Editor editor = event.getData(PlatformDataKeys.EDITOR);
+        if (editor != null) {
+            ViewUtils.showPopupBalloon(editor, content);
+        } else {
+            new Notification("InitView", "InitView", content, NotificationType.INFORMATION).notify(project);
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+package com.johan.initview;
+
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 后台查找并解析布局文件，解析完成后回到UI线程写入代码
+ * 由InitViewScheduler创建，同一个类的多个布局一起解析，一次写入
+ */
+public class InitViewTask extends Task.Backgroundable {
+
+    // 超过这个耗时（毫秒）时显示统计
+    private static final long SLOW_RUN_MILLIS = 1000;
+
+    private Editor editor;
+    private PsiFile psiFile;
+    private List<String> layoutNameList;
+    // 光标位置，用于查找目标类
+    private int offset;
+    // 后台解析的进度，用于取消
+    private volatile ProgressIndicator indicator;
+    // 是否已经被新的请求取代
+    private boolean cancelled;
+    // 是否等待索引完成后再写入
+    private boolean deferred;
+
+    // 解析结果
+    private PsiClass psiClass;
+    // 目标类是否是Adapter，是的话生成ViewHolder
+    private boolean adapter;
+    // 解析时是否在重建索引（dumb mode）
+    private boolean dumb;
+    // 布局名 -> 布局中的element
+    private Map<String, List<Element>> elementMap;
+    // 布局及其include的布局
+    private Set<String> layoutNameSet;
+    // 解析失败时的提示
+    private String message;
+    // 解析成功但需要提示的问题
+    private String warning;
+    // 开始解析时PSI的修改次数
+    private long modificationCount;
+    // 运行统计
+    private RunStatistics statistics;
+
+    public InitViewTask(Project project, Editor editor, PsiFile psiFile, List<String> layoutNameList) {
+        super(project, "InitView", true);
+        this.editor = editor;
+        this.psiFile = psiFile;
+        this.layoutNameList = layoutNameList;
+        this.offset = editor.getCaretModel().getOffset();
+    }
+
+    public Editor getEditor() {
+        return editor;
+    }
+
+    public PsiFile getPsiFile() {
+        return psiFile;
+    }
+
+    /**
+     * 被新的请求取代，取消解析，已经解析完成的不再写入（在UI线程中执行）
+     */
+    public void cancel() {
+        cancelled = true;
+        ProgressIndicator indicator = this.indicator;
+        if (indicator != null) {
+            indicator.cancel();
+        }
+    }
+
+    @Override
+    public void run(@NotNull final ProgressIndicator indicator) {
+        this.indicator = indicator;
+        indicator.setText("解析布局：" + StringUtil.join(layoutNameList, "，"));
+        // 读操作会被写操作打断，打断后等待写操作完成再重新解析
+        // 写操作会取消传入的进度，每次传入新的子进度，任务本身的进度只在用户取消或者被新的请求取代时取消
+        while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(new Runnable() {
+            @Override
+            public void run() {
+                resolve();
+            }
+        }, new SensitiveProgressWrapper(indicator))) {
+            indicator.checkCanceled();
+            ProgressIndicatorUtils.yieldToPendingWriteActions();
+        }
+    }
+
+    /**
+     * 查找布局文件，解析id，查找目标类（在读操作中执行）
+     */
+    private void resolve() {
+        message = null;
+        warning = null;
+        modificationCount = PsiModificationTracker.SERVICE.getInstance(myProject).getModificationCount();
+        if (!psiFile.isValid()) {
+            message = "文件已失效";
+            return;
+        }
+        statistics = new RunStatistics(StringUtil.join(layoutNameList, ","));
+        // 重建索引期间从预加载的快照中读取布局
+        dumb = DumbService.isDumb(myProject);
+        LayoutExpander resolver;
+        if (dumb) {
+            resolver = LayoutSnapshot.getInstance(myProject).createExpander(psiFile);
+        } else {
+            resolver = new LayoutResolver(myProject, psiFile);
+        }
+        Map<String, List<Element>> elementMap = new LinkedHashMap<>();
+        // 没有找到的布局，不影响同一次请求中的其他布局
+        List<String> missingList = new ArrayList<>();
+        int elementCount = 0;
+        for (String layoutName : layoutNameList) {
+            long start = System.nanoTime();
+            LayoutInfo layoutInfo = resolver.getLayout(layoutName);
+            statistics.addPhase("lookup", start);
+            if (layoutInfo == null) {
+                missingList.add(layoutName + ".xml");
+                continue;
+            }
+            // 从索引读取布局并展开include
+            start = System.nanoTime();
+            List<Element> elementList = resolver.resolveUnique(layoutName);
+            statistics.addPhase("parse", start);
+            // 标签名解析为全限定名，写入后由shortenClassReferences加入import，dumb mode中不能查找类，索引完成后重新解析
+            if (!dumb) {
+                start = System.nanoTime();
+                elementList = ViewTypeResolver.resolveTypes(myProject, elementList);
+                statistics.addPhase("resolveTypes", start);
+            }
+            elementMap.put(layoutName, elementList);
+            elementCount += elementList.size();
+        }
+        statistics.setElementCount(elementCount);
+        // 如果没有找到，提示没有找到布局文件
+        String missing = missingList.isEmpty() ? null
+                : (dumb ? "正在建立索引，请稍后再试：" : "没有找到布局文件：") + StringUtil.join(missingList, "，");
+        if (elementMap.isEmpty()) {
+            message = missing;
+            return;
+        }
+        List<String> warningList = new ArrayList<>();
+        if (missing != null) {
+            warningList.add(missing);
+        }
+        if (!resolver.getCycleList().isEmpty()) {
+            warningList.add("布局存在循环include：" + resolver.getCycleList().get(0));
+        }
+        if (!resolver.getConflictList().isEmpty()) {
+            warningList.add("同一个id在不同版本的布局中类型不同，使用共同的父类型：" + StringUtil.join(resolver.getConflictList(), "，"));
+        }
+        warning = warningList.isEmpty() ? null : StringUtil.join(warningList, "<br>");
+        if (elementCount == 0) {
+            message = missing == null ? "没有找到任何id" : missing;
+            return;
+        }
+        psiClass = Utils.getTargetClass(psiFile, offset);
+        if (psiClass == null) {
+            message = "没有找到目标类";
+            return;
+        }
+        this.elementMap = elementMap;
+        this.layoutNameSet = new HashSet<>(resolver.getResolvedLayoutNames());
+    }
+
+    @Override
+    public void onSuccess() {
+        if (myProject.isDisposed() || cancelled) {
+            return;
+        }
+        if (message != null) {
+            ViewUtils.showPopupBalloon(editor, message);
+            return;
+        }
+        // 解析期间PSI发生了变化，结果可能已经过期，重新解析
+        if (PsiModificationTracker.SERVICE.getInstance(myProject).getModificationCount() != modificationCount) {
+            InitViewScheduler.getInstance(myProject).restart(this);
+            return;
+        }
+        if (warning != null) {
+            ViewUtils.showPopupBalloon(editor, warning);
+        }
+        // 写入时需要解析类型（view的类型、父类、import），索引完成后在后台用索引重新解析再写入
+        if (dumb || DumbService.isDumb(myProject)) {
+            ViewUtils.showPopupBalloon(editor, "找到" + getElements().size() + "个id，索引完成后写入");
+            deferred = true;
+            DumbService.getInstance(myProject).smartInvokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (myProject.isDisposed() || cancelled) return;
+                    InitViewScheduler.getInstance(myProject).restart(InitViewTask.this);
+                }
+            });
+            return;
+        }
+        write();
+    }
+
+    @Override
+    public void onFinished() {
+        // 等待索引完成后写入时，写入时再结束
+        if (!deferred) {
+            InitViewScheduler.getInstance(myProject).finished(this);
+        }
+    }
+
+    /**
+     * 写入代码，所有布局一次写入（在UI线程中执行）
+     */
+    private void write() {
+        if (!psiClass.isValid()) {
+            return;
+        }
+        adapter = ViewHolderCreator.isAdapter(psiClass);
+        // 写入文件，不允许在主线程中进行实时的文件写入
+        final List<BaseCreator> creatorList = new ArrayList<>();
+        if (adapter) {
+            // 每个布局一个ViewHolder
+            for (Map.Entry<String, List<Element>> entry : elementMap.entrySet()) {
+                creatorList.add(new ViewHolderCreator(myProject, psiFile, psiClass, entry.getValue(), entry.getKey()));
+            }
+        } else {
+            creatorList.add(new InitViewCreator(myProject, psiFile, psiClass, getElements()));
+        }
+        for (BaseCreator creator : creatorList) {
+            creator.setStatistics(statistics);
+        }
+        if (creatorList.size() == 1) {
+            creatorList.get(0).execute();
+        } else {
+            new WriteCommandAction.Simple(myProject, psiFile) {
+                @Override
+                protected void run() throws Throwable {
+                    for (BaseCreator creator : creatorList) {
+                        creator.generate();
+                    }
+                    InitViewStatistics.getInstance(myProject).add(statistics);
+                }
+            }.execute();
+        }
+        // 记录生成过代码的布局，布局修改后提示更新
+        LayoutSync layoutSync = LayoutSync.getInstance(myProject);
+        for (Map.Entry<String, List<Element>> entry : elementMap.entrySet()) {
+            layoutSync.register(psiClass, entry.getKey(), layoutNameSet, entry.getValue(), adapter);
+        }
+        // 耗时较长时显示各阶段的耗时
+        if (statistics.getTotalMillis() >= SLOW_RUN_MILLIS) {
+            ViewUtils.showPopupBalloon(editor, statistics.toHtml());
+        }
+    }
+
+    /**
+     * 合并所有布局的element，同一个id只保留第一个
+     * @return
+     */
+    private List<Element> getElements() {
+        if (elementMap.size() == 1) {
+            return elementMap.values().iterator().next();
+        }
+        List<Element> elementList = new ArrayList<>();
+        Set<String> idSet = new HashSet<>();
+        for (List<Element> layoutElementList : elementMap.values()) {
+            for (Element element : layoutElementList) {
+                if (LayoutExpander.keepUnique(element, idSet)) {
+                    elementList.add(element);
+                }
+            }
+        }
+        return elementList;
+    }
+
+}
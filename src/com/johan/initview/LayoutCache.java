@@ -0,0 +1,52 @@
+package com.johan.initview;
+
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+
+/**
+ * 布局解析结果缓存，布局文件没有修改时不再重新解析
+ */
+public class LayoutCache {
+
+    /**
+     * 获取布局文件的解析结果，结果随布局文件的修改失效
+     * @param layoutFile
+     * @return 列表不可修改
+     */
+    public static LayoutInfo getLayout(final PsiFile layoutFile) {
+        return CachedValuesManager.getCachedValue(layoutFile, new CachedValueProvider<LayoutInfo>() {
+            @Override
+            public Result<LayoutInfo> compute() {
+                LayoutInfo layoutInfo = scanLayout(layoutFile);
+                if (layoutInfo == null) {
+                    layoutInfo = Utils.parseLayoutInfo(layoutFile);
+                }
+                return Result.create(layoutInfo, layoutFile);
+            }
+        });
+    }
+
+    /**
+     * 布局文件没有未保存的修改时，直接流式扫描文件内容，不建立PSI
+     * @param layoutFile
+     * @return 有未保存的修改或者扫描失败时返回null
+     */
+    private static LayoutInfo scanLayout(PsiFile layoutFile) {
+        VirtualFile virtualFile = layoutFile.getVirtualFile();
+        if (virtualFile == null || FileDocumentManager.getInstance().isFileModified(virtualFile)) {
+            return null;
+        }
+        try {
+            return LayoutScanner.scan(virtualFile.contentsToByteArray(), layoutFile.getName());
+        } catch (XMLStreamException | IOException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+package com.johan.initview;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 展开布局中的include和ViewStub，不依赖IDE，一次运行内使用一个实例
+ * 同一个布局被多次include时只展开一次，并检测循环include
+ */
+public abstract class LayoutExpander {
+
+    // 布局名 -> 展开include后的element
+    private Map<String, List<Element>> resolvedMap = new HashMap<>();
+    // 正在展开的布局，用于检测循环include
+    private Set<String> resolvingSet = new LinkedHashSet<>();
+    // 发现的循环include，如 a -> b -> a
+    private List<String> cycleList = new ArrayList<>();
+    // 同名布局的各个版本中同一个id的类型不同，如 activity_main: main_root (LinearLayout, RelativeLayout)
+    private Set<String> conflictSet = new LinkedHashSet<>();
+    // 字段命名规则，索引中的element按默认规则命名
+    private NamingRules namingRules = NamingRules.DEFAULT;
+
+    /**
+     * 通过布局名获取单个布局的解析结果（不展开include）
+     * @param layoutName
+     * @return 没有找到布局文件时返回null
+     */
+    public abstract LayoutInfo getLayout(String layoutName);
+
+    /**
+     * 设置字段命名规则，需要在展开布局之前设置
+     * @param namingRules
+     */
+    public void setNamingRules(NamingRules namingRules) {
+        this.namingRules = namingRules;
+    }
+
+    /**
+     * 展开较大的布局时检查是否需要取消
+     */
+    protected void checkCanceled() {
+    }
+
+    // 类名不以Layout结尾的常用ViewGroup，各个版本的类型都是ViewGroup时合并为ViewGroup
+    private static final Set<String> VIEW_GROUP_SET = new HashSet<>(Arrays.asList("ViewGroup", "ScrollView",
+            "HorizontalScrollView", "NestedScrollView", "ListView", "GridView", "ExpandableListView", "RecyclerView",
+            "ViewPager", "ViewFlipper", "ViewSwitcher", "ViewAnimator", "Toolbar", "CardView", "RadioGroup"));
+
+    /**
+     * 合并同名布局的各个版本，重复的id在展开时去掉
+     * 同一个id在各个版本中的类型不同时使用共同的父类型View或ViewGroup，并记录在getConflictList中
+     * @param layoutName
+     * @param layoutInfoList
+     * @return
+     */
+    protected LayoutInfo merge(String layoutName, List<LayoutInfo> layoutInfoList) {
+        if (layoutInfoList.size() == 1) {
+            return layoutInfoList.get(0);
+        }
+        List<Element> elementList = new ArrayList<>();
+        Set<String> includeSet = new LinkedHashSet<>();
+        // R.id.id -> 各个版本中的标签名，排序后和版本的顺序无关
+        Map<String, Set<String>> tagMap = new HashMap<>();
+        for (LayoutInfo layoutInfo : layoutInfoList) {
+            for (Element element : layoutInfo.getElementList()) {
+                if (!element.isValidId()) continue;
+                Set<String> tagSet = tagMap.get(element.getFullId());
+                if (tagSet == null) {
+                    tagSet = new TreeSet<>();
+                    tagMap.put(element.getFullId(), tagSet);
+                }
+                tagSet.add(element.getQualifiedName());
+            }
+            elementList.addAll(layoutInfo.getElementList());
+            includeSet.addAll(layoutInfo.getIncludeList());
+        }
+        for (int i = 0; i < elementList.size(); i++) {
+            Element element = elementList.get(i);
+            if (!element.isValidId()) continue;
+            Set<String> tagSet = tagMap.get(element.getFullId());
+            if (tagSet.size() < 2) continue;
+            String commonType = getCommonType(tagSet);
+            if (!commonType.equals(element.getQualifiedName())) {
+                elementList.set(i, new Element(layoutInfoList.get(0).getPrefix(), commonType, element.getId(),
+                        element.isClickable(), element.getOnClick()));
+            }
+            conflictSet.add(layoutName + ": " + element.getId() + " " + tagSet + " -> " + commonType);
+        }
+        // 各个版本的根标签不同时不能确定根view的类型
+        LayoutInfo first = layoutInfoList.get(0);
+        String rootName = first.getRootName();
+        for (LayoutInfo layoutInfo : layoutInfoList) {
+            if (rootName != null && !rootName.equals(layoutInfo.getRootName())) {
+                rootName = null;
+            }
+        }
+        return new LayoutInfo(first.getPrefix(), elementList, new ArrayList<>(includeSet), rootName, first.getRootId());
+    }
+
+    /**
+     * 各个版本的类型都是ViewGroup时返回ViewGroup，否则返回View
+     * @param tagSet
+     * @return
+     */
+    private static String getCommonType(Set<String> tagSet) {
+        for (String tag : tagSet) {
+            String name = tag.substring(tag.lastIndexOf('.') + 1);
+            if (!name.endsWith("Layout") && !VIEW_GROUP_SET.contains(name)) {
+                return "View";
+            }
+        }
+        return "ViewGroup";
+    }
+
+    /**
+     * 获取布局及其include布局中有id或者有onClick的element，同一个id只保留第一次出现的
+     * @param layoutName
+     * @return
+     */
+    public List<Element> resolveUnique(String layoutName) {
+        List<Element> elementList = new ArrayList<>();
+        Set<String> idSet = new HashSet<>();
+        for (Element element : resolve(layoutName)) {
+            if (keepUnique(element, idSet)) {
+                elementList.add(element);
+            }
+        }
+        return elementList;
+    }
+
+    /**
+     * 去掉重复id时是否保留element：有id的只保留第一次出现的，没有id的保留有onClick的和ViewStub（其中的布局有id）
+     * @param element
+     * @param idSet 已经保留的id
+     * @return
+     */
+    public static boolean keepUnique(Element element, Set<String> idSet) {
+        if (element.isValidId()) {
+            return idSet.add(element.getFullId());
+        }
+        return element.getOnClick() != null || element.isViewStub();
+    }
+
+    /**
+     * 递归展开include
+     * @param layoutName
+     * @return
+     */
+    private List<Element> resolve(String layoutName) {
+        List<Element> resolved = resolvedMap.get(layoutName);
+        if (resolved != null) {
+            return resolved;
+        }
+        // 布局正在展开中又被include，说明存在循环
+        if (!resolvingSet.add(layoutName)) {
+            StringBuilder cycleBuilder = new StringBuilder();
+            for (String resolving : resolvingSet) {
+                cycleBuilder.append(resolving).append(" -> ");
+            }
+            cycleList.add(cycleBuilder.append(layoutName).toString());
+            return Collections.emptyList();
+        }
+        try {
+            checkCanceled();
+            LayoutInfo layoutInfo = getLayout(layoutName);
+            if (layoutInfo == null) {
+                return Collections.emptyList();
+            }
+            List<Element> elementList = layoutInfo.getElementList();
+            if (namingRules != NamingRules.DEFAULT) {
+                // 每个布局只在第一次展开时按规则重新命名
+                elementList = new ArrayList<>(elementList.size());
+                for (Element element : layoutInfo.getElementList()) {
+                    elementList.add(element.withRules(namingRules));
+                }
+            }
+            elementList = expandStubs(layoutInfo.getPrefix(), elementList);
+            if (layoutInfo.getIncludeList().isEmpty()) {
+                resolved = elementList;
+            } else {
+                resolved = new ArrayList<>(elementList);
+                for (String include : layoutInfo.getIncludeList()) {
+                    resolved.addAll(resolve(include));
+                }
+            }
+            resolvedMap.put(layoutName, resolved);
+            return resolved;
+        } finally {
+            resolvingSet.remove(layoutName);
+        }
+    }
+
+    /**
+     * 展开ViewStub的布局，布局中的element放在ViewStub下，inflate之后才初始化
+     * @param prefix
+     * @param elementList
+     * @return
+     */
+    private List<Element> expandStubs(String prefix, List<Element> elementList) {
+        List<Element> expandedList = null;
+        for (int i = 0; i < elementList.size(); i++) {
+            Element element = elementList.get(i);
+            if (!element.isViewStub()) continue;
+            if (expandedList == null) {
+                expandedList = new ArrayList<>(elementList);
+            }
+            List<Element> stubElementList = new ArrayList<>();
+            Set<String> idSet = new HashSet<>();
+            List<Element> layoutElementList = resolve(element.getStubLayout());
+            // inflatedId替换了布局根view的id，根view按inflatedId绑定，原来的id在inflate之后不存在
+            if (element.getInflatedId() != null) {
+                Element inflated = getInflatedRoot(prefix, element, layoutElementList, idSet);
+                stubElementList.add(namingRules == NamingRules.DEFAULT ? inflated : inflated.withRules(namingRules));
+                idSet.add(inflated.getFullId());
+            }
+            for (Element stubElement : layoutElementList) {
+                if (keepUnique(stubElement, idSet)) {
+                    stubElementList.add(stubElement);
+                }
+            }
+            expandedList.set(i, element.withStubElements(stubElementList));
+        }
+        return expandedList == null ? elementList : expandedList;
+    }
+
+    /**
+     * ViewStub布局的根view，类型是根标签的类型，id是ViewStub的inflatedId
+     * @param prefix ViewStub所在布局的前缀
+     * @param stub
+     * @param layoutElementList ViewStub布局展开后的element
+     * @param idSet 加入根标签原来的id，展开时去掉
+     * @return
+     */
+    private Element getInflatedRoot(String prefix, Element stub, List<Element> layoutElementList, Set<String> idSet) {
+        LayoutInfo stubInfo = getLayout(stub.getStubLayout());
+        String rootName = stubInfo == null ? null : stubInfo.getRootName();
+        // merge、include作为根标签时没有对应的view类型
+        if (rootName == null || rootName.equals("merge") || rootName.equals("include")) {
+            rootName = "View";
+        }
+        Element root = null;
+        if (stubInfo != null && !stubInfo.getRootId().isEmpty()) {
+            String rootFullId = "R.id." + stubInfo.getRootId();
+            idSet.add(rootFullId);
+            for (Element layoutElement : layoutElementList) {
+                if (rootFullId.equals(layoutElement.getFullId())) {
+                    root = layoutElement;
+                    break;
+                }
+            }
+        }
+        if (root == null) {
+            return new Element(prefix, rootName, stub.getInflatedId(), false, null);
+        }
+        return new Element(prefix, rootName, stub.getInflatedId(), root.isClickable(), root.getOnClick());
+    }
+
+    /**
+     * 获取发现的循环include
+     * @return
+     */
+    public List<String> getCycleList() {
+        return cycleList;
+    }
+
+    /**
+     * 获取同名布局的各个版本中类型不同的id
+     * @return
+     */
+    public List<String> getConflictList() {
+        return new ArrayList<>(conflictSet);
+    }
+
+    /**
+     * 获取已经展开的布局名，包括被include的布局
+     * @return
+     */
+    public Set<String> getResolvedLayoutNames() {
+        return resolvedMap.keySet();
+    }
+
+}
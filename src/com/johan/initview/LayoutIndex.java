@@ -0,0 +1,198 @@
+package com.johan.initview;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.*;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 布局文件索引，布局名 -> 布局中的view（id，类型，clickable，onClick）和include的布局名
+ * 查询时不需要加载和解析布局文件的PSI
+ */
+public class LayoutIndex extends FileBasedIndexExtension<String, LayoutInfo> {
+
+    public static final ID<String, LayoutInfo> NAME = ID.create("com.johan.initview.LayoutIndex");
+
+    private static final int VERSION = 6;
+
+    /**
+     * 查询布局，同名布局（如layout和layout-land）各有一个结果
+     * @param project
+     * @param layoutName
+     * @param scope
+     * @return
+     */
+    public static List<LayoutInfo> getLayouts(Project project, String layoutName, GlobalSearchScope scope) {
+        return FileBasedIndex.getInstance().getValues(NAME, layoutName, scope);
+    }
+
+    /**
+     * 查询布局，带上每个结果所在的布局文件
+     * @param project
+     * @param layoutName
+     * @param scope
+     * @return 布局文件 -> 解析结果
+     */
+    public static Map<VirtualFile, LayoutInfo> getLayoutsByFile(Project project, String layoutName, GlobalSearchScope scope) {
+        final Map<VirtualFile, LayoutInfo> layoutMap = new LinkedHashMap<>();
+        FileBasedIndex.getInstance().processValues(NAME, layoutName, null, new FileBasedIndex.ValueProcessor<LayoutInfo>() {
+            @Override
+            public boolean process(VirtualFile file, LayoutInfo value) {
+                layoutMap.put(file, value);
+                return true;
+            }
+        }, scope);
+        return layoutMap;
+    }
+
+    /**
+     * 获取所有布局名
+     * @param project
+     * @return
+     */
+    public static Collection<String> getLayoutNames(Project project) {
+        return FileBasedIndex.getInstance().getAllKeys(NAME, project);
+    }
+
+    @NotNull
+    @Override
+    public ID<String, LayoutInfo> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, LayoutInfo, FileContent> getIndexer() {
+        return new DataIndexer<String, LayoutInfo, FileContent>() {
+            @NotNull
+            @Override
+            public Map<String, LayoutInfo> map(@NotNull FileContent inputData) {
+                String fileName = inputData.getFileName();
+                LayoutInfo layoutInfo;
+                try {
+                    // 流式扫描，不需要建立PSI
+                    layoutInfo = LayoutScanner.scan(inputData.getContent(), fileName);
+                } catch (XMLStreamException e) {
+                    // 不是合法的XML（如正在编辑），使用容错的PSI解析
+                    layoutInfo = Utils.parseLayoutInfo(inputData.getPsiFile());
+                }
+                int index = fileName.lastIndexOf(".");
+                String layoutName = index == -1 ? fileName : fileName.substring(0, index);
+                return Collections.singletonMap(layoutName, layoutInfo);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<LayoutInfo> getValueExternalizer() {
+        return new DataExternalizer<LayoutInfo>() {
+            @Override
+            public void save(@NotNull DataOutput out, LayoutInfo value) throws IOException {
+                IOUtil.writeUTF(out, value.getPrefix());
+                out.writeInt(value.getElementList().size());
+                for (Element element : value.getElementList()) {
+                    IOUtil.writeUTF(out, element.getQualifiedName());
+                    IOUtil.writeUTF(out, element.getId() == null ? "" : element.getId());
+                    out.writeBoolean(element.isClickable());
+                    out.writeBoolean(element.getOnClick() != null);
+                    if (element.getOnClick() != null) {
+                        IOUtil.writeUTF(out, element.getOnClick());
+                    }
+                    out.writeBoolean(element.isViewStub());
+                    if (element.isViewStub()) {
+                        IOUtil.writeUTF(out, element.getStubLayout());
+                        out.writeBoolean(element.getInflatedId() != null);
+                        if (element.getInflatedId() != null) {
+                            IOUtil.writeUTF(out, element.getInflatedId());
+                        }
+                    }
+                }
+                out.writeInt(value.getIncludeList().size());
+                for (String include : value.getIncludeList()) {
+                    IOUtil.writeUTF(out, include);
+                }
+                out.writeBoolean(value.getRootName() != null);
+                if (value.getRootName() != null) {
+                    IOUtil.writeUTF(out, value.getRootName());
+                }
+                IOUtil.writeUTF(out, value.getRootId());
+            }
+
+            @Override
+            public LayoutInfo read(@NotNull DataInput in) throws IOException {
+                String prefix = IOUtil.readUTF(in);
+                int size = in.readInt();
+                List<Element> elementList = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    String name = IOUtil.readUTF(in);
+                    String id = IOUtil.readUTF(in);
+                    boolean clickable = in.readBoolean();
+                    String onClick = in.readBoolean() ? IOUtil.readUTF(in) : null;
+                    String stubLayout = null;
+                    String inflatedId = null;
+                    if (in.readBoolean()) {
+                        stubLayout = IOUtil.readUTF(in);
+                        inflatedId = in.readBoolean() ? IOUtil.readUTF(in) : null;
+                    }
+                    elementList.add(new Element(prefix, name, id, clickable, onClick, stubLayout, inflatedId));
+                }
+                size = in.readInt();
+                List<String> includeList = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    includeList.add(IOUtil.readUTF(in));
+                }
+                String rootName = in.readBoolean() ? IOUtil.readUTF(in) : null;
+                String rootId = IOUtil.readUTF(in);
+                return new LayoutInfo(prefix, Collections.unmodifiableList(elementList), Collections.unmodifiableList(includeList), rootName, rootId);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE) {
+            @Override
+            public boolean acceptInput(@NotNull VirtualFile file) {
+                // 只索引layout、layout-land等目录下的布局文件
+                VirtualFile parent = file.getParent();
+                return parent != null && parent.getName().startsWith("layout");
+            }
+        };
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    @Override
+    public int getVersion() {
+        return VERSION;
+    }
+
+}
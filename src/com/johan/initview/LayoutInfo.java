@@ -0,0 +1,53 @@
+package com.johan.initview;
+
+import java.util.List;
+
+/**
+ * 单个布局文件的解析结果，include的布局只记录布局名，不展开
+ */
+public class LayoutInfo {
+
+    // 布局的id前缀
+    private String prefix;
+    // 布局中的view
+    private List<Element> elementList;
+    // include的布局名
+    private List<String> includeList;
+    // 根标签名，如FrameLayout，不知道时为null
+    private String rootName;
+    // 根标签的id，没有id时为空字符串，ViewStub的android:inflatedId会替换这个id
+    private String rootId;
+
+    public LayoutInfo(String prefix, List<Element> elementList, List<String> includeList) {
+        this(prefix, elementList, includeList, null, "");
+    }
+
+    public LayoutInfo(String prefix, List<Element> elementList, List<String> includeList, String rootName, String rootId) {
+        this.prefix = prefix;
+        this.elementList = elementList;
+        this.includeList = includeList;
+        this.rootName = rootName;
+        this.rootId = rootId;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public List<Element> getElementList() {
+        return elementList;
+    }
+
+    public List<String> getIncludeList() {
+        return includeList;
+    }
+
+    public String getRootName() {
+        return rootName;
+    }
+
+    public String getRootId() {
+        return rootId;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.johan.initview;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在IDE中查找布局并展开include，一次运行内使用一个实例
+ * 单个布局的解析结果由LayoutIndex跨运行保存
+ */
+public class LayoutResolver extends LayoutExpander {
+
+    private Project project;
+    // 查找布局的范围，按顺序查找，找到就不再往下找
+    private List<GlobalSearchScope> scopeList;
+    // 布局名 -> 布局解析结果，没有找到时值为null
+    private Map<String, LayoutInfo> layoutMap = new HashMap<>();
+
+    public LayoutResolver(Project project, PsiElement context) {
+        this.project = project;
+        this.scopeList = getScopeList(project, context);
+        setNamingRules(InitViewSettings.getNamingRules(project));
+    }
+
+    /**
+     * 查找布局的范围：先找当前module和依赖的module，再找依赖的库（如aar），最后找整个项目
+     * 只依赖module的结构，不需要索引，dumb mode中也可以使用
+     * @param project
+     * @param context
+     * @return
+     */
+    public static List<GlobalSearchScope> getScopeList(Project project, PsiElement context) {
+        List<GlobalSearchScope> scopeList = new ArrayList<>();
+        Module module = context == null ? null : ModuleUtilCore.findModuleForPsiElement(context);
+        if (module != null) {
+            scopeList.add(module.getModuleWithDependenciesScope());
+            scopeList.add(module.getModuleWithDependenciesAndLibrariesScope(false));
+        }
+        scopeList.add(GlobalSearchScope.allScope(project));
+        return scopeList;
+    }
+
+    /**
+     * 通过布局名获取布局解析结果，优先从LayoutIndex中读取，不需要解析PSI
+     * 索引中没有时（如布局不在layout目录下）才查找布局文件并解析
+     * 同一个范围内的多个同名布局（layout、layout-land、layout-sw600dp等）合并为一个结果
+     * @param layoutName
+     * @return 没有找到布局文件时返回null
+     */
+    @Override
+    public LayoutInfo getLayout(String layoutName) {
+        if (layoutMap.containsKey(layoutName)) {
+            return layoutMap.get(layoutName);
+        }
+        LayoutInfo layoutInfo = null;
+        for (GlobalSearchScope scope : scopeList) {
+            List<LayoutInfo> layoutInfoList = new ArrayList<>(LayoutIndex.getLayouts(project, layoutName, scope));
+            if (layoutInfoList.isEmpty()) {
+                PsiFile[] getFiles = FilenameIndex.getFilesByName(project, layoutName + ".xml", scope);
+                for (PsiFile getFile : getFiles) {
+                    layoutInfoList.add(LayoutCache.getLayout(getFile));
+                }
+            }
+            if (!layoutInfoList.isEmpty()) {
+                layoutInfo = merge(layoutName, layoutInfoList);
+                break;
+            }
+        }
+        layoutMap.put(layoutName, layoutInfo);
+        return layoutInfo;
+    }
+
+    /**
+     * 查找布局文件（layout、layout-land等），查找顺序和getLayout一致
+     * @param layoutName
+     * @return
+     */
+    public List<PsiFile> getLayoutFiles(String layoutName) {
+        for (GlobalSearchScope scope : scopeList) {
+            PsiFile[] files = FilenameIndex.getFilesByName(project, layoutName + ".xml", scope);
+            if (files.length > 0) {
+                return Arrays.asList(files);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    protected void checkCanceled() {
+        ProgressManager.checkCanceled();
+    }
+
+}
@@ -0,0 +1,171 @@
+package com.johan.initview;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 流式扫描布局文件，不需要建立XML PSI，不依赖IDE
+ * 只为有android:id、android:clickable或android:onClick的标签创建Element
+ */
+public class LayoutScanner {
+
+    // view id 正则
+    private static final Pattern idPattern = Pattern.compile("@\\+?(android:)?id/([^$]+)$", Pattern.CASE_INSENSITIVE);
+
+    private static final XMLInputFactory inputFactory = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // 按原始的属性名（android:id）查找，和PSI解析保持一致
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * 从ViewId（@+id/view_id）获取Id（view_id）
+     * @param viewId
+     * @return
+     */
+    public static String getViewId(String viewId) {
+        Matcher matcher = idPattern.matcher(viewId);
+        if (matcher.find() && matcher.groupCount() > 1) {
+            return matcher.group(2);
+        }
+        return null;
+    }
+
+    /**
+     * 获取布局名（@layout/layoutName -> layoutName）
+     * @param layout
+     * @return
+     */
+    public static String getLayoutName(String layout) {
+        if (layout == null || !layout.startsWith("@") || !layout.contains("/")) return null;
+        String[] parts = layout.split("/");
+        if (parts.length != 2) return null;
+        return parts[1];
+    }
+
+    /**
+     * 获取布局文件的id前缀（activity_main.xml -> main）
+     * @param fileName
+     * @return
+     */
+    public static String getLayoutPrefix(String fileName) {
+        int index = fileName.indexOf("_");
+        if (index != -1) {
+            fileName = fileName.substring(index + 1);
+        }
+        index = fileName.indexOf(".");
+        if (index != -1) {
+            fileName = fileName.substring(0, index);
+        }
+        return fileName;
+    }
+
+    /**
+     * 扫描布局文件内容
+     * @param content
+     * @param fileName
+     * @return
+     * @throws XMLStreamException 布局文件不是合法的XML（如正在编辑）
+     */
+    public static LayoutInfo scan(byte[] content, String fileName) throws XMLStreamException {
+        return scan(new ByteArrayInputStream(content), fileName);
+    }
+
+    /**
+     * 扫描布局文件内容
+     * @param inputStream
+     * @param fileName
+     * @return
+     * @throws XMLStreamException 布局文件不是合法的XML（如正在编辑）
+     */
+    public static LayoutInfo scan(InputStream inputStream, String fileName) throws XMLStreamException {
+        String prefix = getLayoutPrefix(fileName);
+        List<Element> elementList = new ArrayList<>();
+        List<String> includeList = new ArrayList<>();
+        // 根标签，ViewStub的android:inflatedId会替换根标签的id
+        String rootName = null;
+        String rootId = "";
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+                String name = getName(reader.getPrefix(), reader.getLocalName());
+                String id = null;
+                String clickable = null;
+                String onClick = null;
+                String layout = null;
+                String androidLayout = null;
+                String inflatedId = null;
+                for (int i = 0; i < reader.getAttributeCount(); i++) {
+                    String attribute = getName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+                    switch (attribute) {
+                        case "android:id":
+                            id = reader.getAttributeValue(i);
+                            break;
+                        case "android:clickable":
+                            clickable = reader.getAttributeValue(i);
+                            break;
+                        case "android:onClick":
+                            onClick = reader.getAttributeValue(i);
+                            break;
+                        case "layout":
+                            layout = reader.getAttributeValue(i);
+                            break;
+                        case "android:layout":
+                            androidLayout = reader.getAttributeValue(i);
+                            break;
+                        case "android:inflatedId":
+                            inflatedId = reader.getAttributeValue(i);
+                            break;
+                    }
+                }
+                if (rootName == null) {
+                    rootName = name;
+                    rootId = id == null ? "" : getViewId(id);
+                }
+                // 如果是include标签，只记录布局名，由LayoutResolver展开
+                if (name.equalsIgnoreCase("include")) {
+                    String include = getLayoutName(layout);
+                    if (include != null) {
+                        includeList.add(include);
+                    }
+                    continue;
+                }
+                // ViewStub记录inflate的布局，由LayoutExpander单独展开，没有id时也需要保留
+                String stubLayout = name.equals("ViewStub") ? getLayoutName(androidLayout) : null;
+                if (id == null && clickable == null && onClick == null && stubLayout == null) continue;
+                String viewId = id == null ? "" : getViewId(id);
+                String stubInflatedId = stubLayout == null || inflatedId == null ? null : getViewId(inflatedId);
+                elementList.add(new Element(prefix, name, viewId, clickable != null && !clickable.equals("false"), onClick, stubLayout, stubInflatedId));
+            }
+        } finally {
+            reader.close();
+        }
+        return new LayoutInfo(prefix, Collections.unmodifiableList(elementList), Collections.unmodifiableList(includeList), rootName, rootId);
+    }
+
+    /**
+     * 不识别命名空间时，prefix为空，localName就是完整的名字
+     * @param prefix
+     * @param localName
+     * @return
+     */
+    private static String getName(String prefix, String localName) {
+        return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+    }
+
+}
@@ -0,0 +1,166 @@
+package com.johan.initview;
+
+import com.intellij.concurrency.SensitiveProgressWrapper;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.PerformInBackgroundOption;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.IndexNotReadyException;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.search.GlobalSearchScope;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 项目中所有布局的解析结果快照，索引可用时在后台生成
+ * 切换分支等重建索引期间（dumb mode）LayoutIndex和FilenameIndex不可用，InitView从快照中读取布局
+ * 快照记录每个结果所在的布局文件，读取时和LayoutResolver一样优先使用当前module的布局
+ */
+public class LayoutSnapshot {
+
+    private final Project project;
+    // 布局名 -> 各个module、库中各个版本（layout、layout-land等）的布局文件和解析结果，整体替换，读取时不需要加锁
+    private volatile Map<String, Map<VirtualFile, LayoutInfo>> layoutMap = Collections.emptyMap();
+    // 是否有正在进行的刷新
+    private volatile boolean refreshing;
+
+    public static LayoutSnapshot getInstance(Project project) {
+        return ServiceManager.getService(project, LayoutSnapshot.class);
+    }
+
+    public LayoutSnapshot(Project project) {
+        this.project = project;
+        // 每次索引完成后刷新，下次重建索引时使用最新的快照
+        project.getMessageBus().connect(project).subscribe(DumbService.DUMB_MODE, new DumbService.DumbModeListener() {
+            @Override
+            public void enteredDumbMode() {
+            }
+
+            @Override
+            public void exitDumbMode() {
+                refreshInBackground();
+            }
+        });
+    }
+
+    /**
+     * 在后台刷新快照
+     */
+    public void refreshInBackground() {
+        if (refreshing || project.isDisposed()) return;
+        refreshing = true;
+        new Task.Backgroundable(project, "InitView：预加载布局", true, PerformInBackgroundOption.ALWAYS_BACKGROUND) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                refresh(indicator);
+            }
+
+            @Override
+            public void onFinished() {
+                refreshing = false;
+            }
+        }.queue();
+    }
+
+    /**
+     * 从LayoutIndex读取所有布局，每个布局一次读操作，读操作会被写操作打断，不影响编辑
+     * 中途进入dumb mode时放弃，等索引完成后重新刷新
+     * @param indicator
+     */
+    private void refresh(ProgressIndicator indicator) {
+        final List<String> layoutNameList = new ArrayList<>();
+        final Map<String, Map<VirtualFile, LayoutInfo>> map = new HashMap<>();
+        try {
+            boolean smart = readInSmartMode(indicator, new Runnable() {
+                @Override
+                public void run() {
+                    layoutNameList.clear();
+                    layoutNameList.addAll(LayoutIndex.getLayoutNames(project));
+                }
+            });
+            if (!smart) return;
+            final GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+            for (int i = 0; i < layoutNameList.size(); i++) {
+                indicator.checkCanceled();
+                indicator.setFraction((double) i / layoutNameList.size());
+                final String layoutName = layoutNameList.get(i);
+                smart = readInSmartMode(indicator, new Runnable() {
+                    @Override
+                    public void run() {
+                        Map<VirtualFile, LayoutInfo> fileLayoutMap = LayoutIndex.getLayoutsByFile(project, layoutName, scope);
+                        if (!fileLayoutMap.isEmpty()) {
+                            map.put(layoutName, fileLayoutMap);
+                        }
+                    }
+                });
+                if (!smart) return;
+            }
+        } catch (IndexNotReadyException e) {
+            return;
+        }
+        layoutMap = map;
+    }
+
+    /**
+     * 执行读操作，被写操作打断时等待写操作完成后重新执行
+     * @param indicator
+     * @param runnable
+     * @return 项目已关闭或者进入dumb mode时返回false
+     */
+    private boolean readInSmartMode(ProgressIndicator indicator, Runnable runnable) {
+        // 写操作会取消传入的进度，每次传入新的子进度，刷新本身只在取消任务时停止
+        while (!ProgressIndicatorUtils.runInReadActionWithWriteActionPriority(runnable, new SensitiveProgressWrapper(indicator))) {
+            indicator.checkCanceled();
+            ProgressIndicatorUtils.yieldToPendingWriteActions();
+        }
+        return !project.isDisposed() && !DumbService.isDumb(project);
+    }
+
+    public boolean isEmpty() {
+        return layoutMap.isEmpty();
+    }
+
+    /**
+     * 从快照中展开布局，不使用索引，可以在dumb mode中使用
+     * 查找顺序和LayoutResolver一致，只合并第一个找到布局的范围内的版本
+     * @param context 用于确定当前module
+     * @return
+     */
+    public LayoutExpander createExpander(PsiElement context) {
+        final Map<String, Map<VirtualFile, LayoutInfo>> snapshot = layoutMap;
+        final List<GlobalSearchScope> scopeList = LayoutResolver.getScopeList(project, context);
+        LayoutExpander expander = new LayoutExpander() {
+            @Override
+            public LayoutInfo getLayout(String layoutName) {
+                Map<VirtualFile, LayoutInfo> fileLayoutMap = snapshot.get(layoutName);
+                if (fileLayoutMap == null) {
+                    return null;
+                }
+                for (GlobalSearchScope scope : scopeList) {
+                    List<LayoutInfo> layoutInfoList = new ArrayList<>();
+                    for (Map.Entry<VirtualFile, LayoutInfo> entry : fileLayoutMap.entrySet()) {
+                        if (entry.getKey().isValid() && scope.contains(entry.getKey())) {
+                            layoutInfoList.add(entry.getValue());
+                        }
+                    }
+                    if (!layoutInfoList.isEmpty()) {
+                        return merge(layoutName, layoutInfoList);
+                    }
+                }
+                return null;
+            }
+        };
+        expander.setNamingRules(InitViewSettings.getNamingRules(project));
+        return expander;
+    }
+
+}
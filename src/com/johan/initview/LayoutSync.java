@@ -0,0 +1,382 @@
+package com.johan.initview;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationListener;
+import com.intellij.notification.NotificationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.psi.*;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.Alarm;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.event.HyperlinkEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 布局修改后提示更新已生成的代码（在设置中开启）
+ * 记录本次打开项目后生成过代码的类和布局，布局修改停止一段时间后只重新解析修改过的布局，
+ * 对比新增和删除的id，提示只写入新增的部分
+ */
+public class LayoutSync {
+
+    // 布局修改停止多久（毫秒）后再检查
+    private static final int DELAY_MILLIS = 1000;
+
+    private final Project project;
+    // 在后台线程中检查，项目关闭时自动取消
+    private final Alarm alarm;
+    // 生成过代码的类和布局
+    private final List<Binding> bindingList = new ArrayList<>();
+    // 修改过、还没有检查的布局名
+    private final Set<String> changedSet = new HashSet<>();
+    // 任何布局文件修改（或者命名规则修改）时加一，用于清空依赖布局的缓存
+    private final SimpleModificationTracker layoutTracker = new SimpleModificationTracker();
+
+    public static LayoutSync getInstance(Project project) {
+        return ServiceManager.getService(project, LayoutSync.class);
+    }
+
+    public LayoutSync(Project project) {
+        this.project = project;
+        this.alarm = new Alarm(Alarm.ThreadToUse.POOLED_THREAD, project);
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+            @Override
+            public void childAdded(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void childrenChanged(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+
+            @Override
+            public void propertyChanged(@NotNull PsiTreeChangeEvent event) {
+                onChange(event);
+            }
+        }, project);
+        // 没有加载PSI的布局（切换分支、外部修改）没有PSI事件，从文件系统的事件中获取
+        project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener.Adapter() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                onFileChange(events);
+            }
+        });
+    }
+
+    /**
+     * 记录生成过代码的类和布局（在读操作中执行）
+     * @param psiClass
+     * @param layoutName
+     * @param layoutNameSet 布局及其include的布局
+     * @param elementList
+     * @param adapter 是否生成的是ViewHolder
+     */
+    public void register(PsiClass psiClass, String layoutName, Set<String> layoutNameSet, List<Element> elementList, boolean adapter) {
+        if (!InitViewSettings.isAutoSync(project)) return;
+        SmartPsiElementPointer<PsiClass> classPointer = SmartPointerManager.getInstance(project).createSmartPsiElementPointer(psiClass);
+        synchronized (bindingList) {
+            for (Iterator<Binding> iterator = bindingList.iterator(); iterator.hasNext(); ) {
+                Binding binding = iterator.next();
+                if (binding.layoutName.equals(layoutName) && psiClass.equals(binding.classPointer.getElement())) {
+                    iterator.remove();
+                }
+            }
+            bindingList.add(new Binding(classPointer, layoutName, layoutNameSet, getIdSet(elementList), adapter));
+        }
+    }
+
+    /**
+     * 布局的修改计数，缓存依赖布局内容时使用
+     * @return
+     */
+    public ModificationTracker getLayoutTracker() {
+        return layoutTracker;
+    }
+
+    /**
+     * 布局的解析结果发生变化（如修改了命名规则），清空依赖布局的缓存
+     */
+    public void layoutsChanged() {
+        layoutTracker.incModificationCount();
+    }
+
+    /**
+     * 文件系统中的布局文件新增、删除、修改、重命名（在UI线程中执行）
+     * @param events
+     */
+    private void onFileChange(List<? extends VFileEvent> events) {
+        ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+        for (VFileEvent event : events) {
+            VirtualFile file = event.getFile();
+            // 删除后的文件已经无效，无法判断是否属于项目
+            if (file != null && file.isValid() && !fileIndex.isInContent(file)) continue;
+            String path = event.getPath();
+            String layoutName = getLayoutName(path);
+            if (layoutName != null) {
+                layoutChanged(layoutName);
+            }
+            // 重命名时原来的布局名也受影响
+            if (event instanceof VFilePropertyChangeEvent
+                    && VirtualFile.PROP_NAME.equals(((VFilePropertyChangeEvent) event).getPropertyName())) {
+                String oldName = String.valueOf(((VFilePropertyChangeEvent) event).getOldValue());
+                String oldLayoutName = getLayoutName(path.substring(0, path.lastIndexOf('/') + 1) + oldName);
+                if (oldLayoutName != null) {
+                    layoutChanged(oldLayoutName);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从文件路径获取布局名，不是layout目录下的xml时返回null
+     * @param path 如 res/layout-land/activity_main.xml
+     * @return
+     */
+    private static String getLayoutName(String path) {
+        if (!path.endsWith(".xml")) return null;
+        int nameIndex = path.lastIndexOf('/');
+        if (nameIndex <= 0) return null;
+        String directory = path.substring(path.lastIndexOf('/', nameIndex - 1) + 1, nameIndex);
+        if (!directory.startsWith("layout")) return null;
+        return path.substring(nameIndex + 1, path.length() - 4);
+    }
+
+    /**
+     * 布局文件修改，记录布局名，推迟检查（在UI线程中执行）
+     * @param event
+     */
+    private void onChange(PsiTreeChangeEvent event) {
+        // 添加、删除文件时event.getFile()为null，文件是child
+        PsiFile psiFile;
+        PsiDirectory directory;
+        if (event.getChild() instanceof PsiFile && event.getParent() instanceof PsiDirectory) {
+            psiFile = (PsiFile) event.getChild();
+            directory = (PsiDirectory) event.getParent();
+        } else {
+            psiFile = event.getFile();
+            directory = psiFile == null ? null : psiFile.getParent();
+        }
+        if (!(psiFile instanceof XmlFile)) return;
+        if (directory == null || !directory.getName().startsWith("layout")) return;
+        String layoutName = psiFile.getName();
+        if (layoutName.endsWith(".xml")) {
+            layoutName = layoutName.substring(0, layoutName.length() - 4);
+        }
+        layoutChanged(layoutName);
+    }
+
+    /**
+     * 清空依赖布局的缓存，记录布局名，推迟检查（在UI线程中执行）
+     * @param layoutName
+     */
+    private void layoutChanged(String layoutName) {
+        layoutTracker.incModificationCount();
+        synchronized (bindingList) {
+            if (bindingList.isEmpty()) return;
+            changedSet.add(layoutName);
+        }
+        // 连续修改时只在最后一次修改之后检查一次
+        alarm.cancelAllRequests();
+        alarm.addRequest(new Runnable() {
+            @Override
+            public void run() {
+                check();
+            }
+        }, DELAY_MILLIS);
+    }
+
+    /**
+     * 重新解析受影响的布局，对比id（在后台线程中执行）
+     */
+    private void check() {
+        final List<Binding> affectedList = new ArrayList<>();
+        synchronized (bindingList) {
+            // 设置中关闭后不再检查
+            if (!InitViewSettings.isAutoSync(project)) {
+                bindingList.clear();
+                changedSet.clear();
+                return;
+            }
+            for (Binding binding : bindingList) {
+                if (!Collections.disjoint(binding.layoutNameSet, changedSet)) {
+                    affectedList.add(binding);
+                }
+            }
+            changedSet.clear();
+        }
+        for (final Binding binding : affectedList) {
+            if (project.isDisposed()) return;
+            // 索引更新完成后才能读取布局
+            final List<Element> elementList = DumbService.getInstance(project).runReadActionInSmartMode(new Computable<List<Element>>() {
+                @Override
+                public List<Element> compute() {
+                    PsiClass psiClass = binding.classPointer.getElement();
+                    if (psiClass == null) return null;
+                    LayoutResolver resolver = new LayoutResolver(project, psiClass);
+                    // 在后台解析view的类型，写操作中不再查找类
+                    List<Element> elementList = ViewTypeResolver.resolveTypes(project, resolver.resolveUnique(binding.layoutName));
+                    binding.layoutNameSet = new HashSet<>(resolver.getResolvedLayoutNames());
+                    return elementList;
+                }
+            });
+            if (elementList == null) {
+                // 类已经被删除
+                synchronized (bindingList) {
+                    bindingList.remove(binding);
+                }
+                continue;
+            }
+            final List<Element> addedList = new ArrayList<>();
+            for (Element element : elementList) {
+                if (element.isValidId() && !binding.idSet.contains(element.getFullId())) {
+                    addedList.add(element);
+                }
+            }
+            final Set<String> removedSet = new TreeSet<>(binding.idSet);
+            removedSet.removeAll(getIdSet(elementList));
+            if (addedList.isEmpty() && removedSet.isEmpty()) continue;
+            ApplicationManager.getApplication().invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    showNotification(binding, elementList, addedList, removedSet);
+                }
+            }, project.getDisposed());
+        }
+    }
+
+    /**
+     * 提示新增和删除的id，新增的id可以点击更新写入（在UI线程中执行）
+     * @param binding
+     * @param elementList 布局中现在所有的element
+     * @param addedList 新增的element
+     * @param removedSet 删除的id
+     */
+    private void showNotification(final Binding binding, final List<Element> elementList, final List<Element> addedList, Set<String> removedSet) {
+        final PsiClass psiClass = binding.classPointer.getElement();
+        if (psiClass == null) return;
+        // 同一个类和布局只保留最新的提示
+        if (binding.notification != null) {
+            binding.notification.expire();
+        }
+        StringBuilder contentBuilder = new StringBuilder();
+        contentBuilder.append(psiClass.getName()).append("（").append(binding.layoutName).append(".xml）");
+        if (!addedList.isEmpty()) {
+            contentBuilder.append("<br>新增：");
+            for (int i = 0; i < addedList.size(); i++) {
+                contentBuilder.append(i == 0 ? "" : "，").append(addedList.get(i).getId());
+            }
+        }
+        if (!removedSet.isEmpty()) {
+            contentBuilder.append("<br>删除（需要手动处理）：");
+            boolean first = true;
+            for (String id : removedSet) {
+                contentBuilder.append(first ? "" : "，").append(id.substring(5));
+                first = false;
+            }
+        }
+        if (addedList.isEmpty()) {
+            // 只有删除时不需要更新，记录为已提示
+            binding.idSet = getIdSet(elementList);
+        } else {
+            contentBuilder.append("<br><a href=\"update\">更新</a>");
+        }
+        binding.notification = new Notification("InitView", "布局已修改", contentBuilder.toString(), NotificationType.INFORMATION,
+                new NotificationListener.Adapter() {
+                    @Override
+                    protected void hyperlinkActivated(@NotNull Notification notification, @NotNull HyperlinkEvent event) {
+                        notification.expire();
+                        update(binding, elementList, addedList);
+                    }
+                });
+        binding.notification.notify(project);
+    }
+
+    /**
+     * 只写入新增的id（在UI线程中执行）
+     * @param binding
+     * @param elementList
+     * @param addedList
+     */
+    private void update(Binding binding, List<Element> elementList, List<Element> addedList) {
+        PsiClass psiClass = binding.classPointer.getElement();
+        if (psiClass == null || !psiClass.isValid()) return;
+        PsiFile psiFile = psiClass.getContainingFile();
+        BaseCreator creator;
+        if (binding.adapter) {
+            creator = new ViewHolderCreator(project, psiFile, psiClass, addedList, binding.layoutName);
+        } else {
+            creator = new InitViewCreator(project, psiFile, psiClass, addedList);
+        }
+        RunStatistics statistics = new RunStatistics(binding.layoutName);
+        statistics.setElementCount(addedList.size());
+        creator.setStatistics(statistics);
+        creator.execute();
+        binding.idSet = getIdSet(elementList);
+    }
+
+    private static Set<String> getIdSet(List<Element> elementList) {
+        Set<String> idSet = new HashSet<>();
+        for (Element element : elementList) {
+            if (element.isValidId()) {
+                idSet.add(element.getFullId());
+            }
+        }
+        return idSet;
+    }
+
+    /**
+     * 生成过代码的类和布局，以及生成时布局中的id
+     */
+    private static class Binding {
+
+        private SmartPsiElementPointer<PsiClass> classPointer;
+        private String layoutName;
+        private boolean adapter;
+        // 布局及其include的布局，这些布局修改时需要检查
+        private volatile Set<String> layoutNameSet;
+        // 已经生成过代码的id（R.id.xxx）
+        private volatile Set<String> idSet;
+        // 最近一次提示
+        private Notification notification;
+
+        private Binding(SmartPsiElementPointer<PsiClass> classPointer, String layoutName, Set<String> layoutNameSet, Set<String> idSet, boolean adapter) {
+            this.classPointer = classPointer;
+            this.layoutName = layoutName;
+            this.layoutNameSet = layoutNameSet;
+            this.idSet = idSet;
+            this.adapter = adapter;
+        }
+
+    }
+
+}
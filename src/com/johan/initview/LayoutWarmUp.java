@@ -0,0 +1,22 @@
+package com.johan.initview;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+
+/**
+ * 打开项目后，在索引可用时后台预加载布局，第一次使用InitView时不需要等待
+ */
+public class LayoutWarmUp implements StartupActivity {
+
+    @Override
+    public void runActivity(final Project project) {
+        DumbService.getInstance(project).runWhenSmart(new Runnable() {
+            @Override
+            public void run() {
+                LayoutSnapshot.getInstance(project).refreshInBackground();
+            }
+        });
+    }
+
+}
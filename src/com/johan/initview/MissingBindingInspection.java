@@ -0,0 +1,132 @@
+package com.johan.initview;
+
+import com.intellij.codeInspection.BaseJavaLocalInspectionTool;
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.Nls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 检查setContentView(R.layout.x)的布局中还没有字段或者没有初始化的id
+ */
+public class MissingBindingInspection extends BaseJavaLocalInspectionTool {
+
+    // 提示中最多列出的id数
+    private static final int MAX_LISTED = 5;
+
+    @Nls
+    @NotNull
+    @Override
+    public String getDisplayName() {
+        return "布局中的id没有初始化";
+    }
+
+    @Nls
+    @NotNull
+    @Override
+    public String getGroupDisplayName() {
+        return "InitView";
+    }
+
+    @NotNull
+    @Override
+    public String getShortName() {
+        return "InitViewMissingBinding";
+    }
+
+    @Nullable
+    @Override
+    public ProblemDescriptor[] checkClass(@NotNull PsiClass aClass, @NotNull InspectionManager manager, boolean isOnTheFly) {
+        List<ProblemDescriptor> problemList = new ArrayList<>();
+        for (BindingAnalysis.Usage usage : BindingAnalysis.getInstance(aClass).getUsageList()) {
+            List<Element> missingList = usage.getMissingList();
+            if (missingList.isEmpty()) continue;
+            StringBuilder messageBuilder = new StringBuilder();
+            messageBuilder.append(usage.getLayoutName()).append("中有").append(missingList.size()).append("个id没有初始化：");
+            for (int i = 0; i < missingList.size() && i < MAX_LISTED; i++) {
+                messageBuilder.append(i == 0 ? "" : "，").append(missingList.get(i).getId());
+            }
+            if (missingList.size() > MAX_LISTED) {
+                messageBuilder.append("等");
+            }
+            problemList.add(manager.createProblemDescriptor(usage.getLayoutExpression(), messageBuilder.toString(), isOnTheFly,
+                    new LocalQuickFix[]{new InitViewQuickFix(usage.getLayoutName())}, ProblemHighlightType.GENERIC_ERROR_OR_WARNING));
+        }
+        return problemList.isEmpty() ? null : problemList.toArray(new ProblemDescriptor[problemList.size()]);
+    }
+
+    /**
+     * 和InitView动作一样生成代码，已有的字段和初始化不会重复生成
+     */
+    private static class InitViewQuickFix implements LocalQuickFix {
+
+        private String layoutName;
+
+        private InitViewQuickFix(String layoutName) {
+            this.layoutName = layoutName;
+        }
+
+        @Nls
+        @NotNull
+        @Override
+        public String getFamilyName() {
+            return "InitView";
+        }
+
+        @Nls
+        @NotNull
+        @Override
+        public String getName() {
+            return "InitView：初始化" + layoutName + "中的id";
+        }
+
+        @Override
+        public boolean startInWriteAction() {
+            // InitViewCreator自己执行写操作
+            return false;
+        }
+
+        @Override
+        public void applyFix(@NotNull final Project project, @NotNull ProblemDescriptor descriptor) {
+            final PsiClass psiClass = PsiTreeUtil.getParentOfType(descriptor.getPsiElement(), PsiClass.class);
+            if (psiClass == null) return;
+            PsiFile psiFile = psiClass.getContainingFile();
+            // 解析布局和view的类型可能需要查找很多类，在可以取消的进度中执行，不在写操作中执行
+            List<Element> elementList = ProgressManager.getInstance().runProcessWithProgressSynchronously(
+                    new ThrowableComputable<List<Element>, RuntimeException>() {
+                        @Override
+                        public List<Element> compute() {
+                            return ApplicationManager.getApplication().runReadAction(new Computable<List<Element>>() {
+                                @Override
+                                public List<Element> compute() {
+                                    List<Element> elementList = new LayoutResolver(project, psiClass).resolveUnique(layoutName);
+                                    return ViewTypeResolver.resolveTypes(project, elementList);
+                                }
+                            });
+                        }
+                    }, "InitView：解析" + layoutName, true, project);
+            if (elementList.isEmpty()) return;
+            RunStatistics statistics = new RunStatistics(layoutName);
+            statistics.setElementCount(elementList.size());
+            InitViewCreator creator = new InitViewCreator(project, psiFile, psiClass, elementList);
+            creator.setStatistics(statistics);
+            creator.execute();
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.johan.initview;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 字段命名规则，不依赖IDE，解析一次后可以重复使用（不可变）
+ * 规则文本每行一条：
+ *   类名后缀=字段后缀    如 Layout=Layout，类名以Layout结尾的view字段以Layout结尾，按顺序匹配第一条
+ *   *=字段后缀           没有匹配时使用的后缀，如 *=View
+ *   prefix=true|false    是否去掉id中的布局前缀（activity_main.xml中的main_）
+ *   # 开头的行是注释
+ */
+public class NamingRules {
+
+    public static final String DEFAULT_TEXT = "# 个人习惯，命名view的变量时加入View类型作为后缀\n"
+            + "Layout=Layout\n"
+            + "Button=Button\n"
+            + "Bar=Bar\n"
+            + "Spinner=Spinner\n"
+            + "Box=Box\n"
+            + "*=View\n"
+            + "prefix=true\n";
+
+    public static final NamingRules DEFAULT = parse(DEFAULT_TEXT);
+
+    // 最近一次解析的规则，设置不变时不重复解析
+    private static volatile NamingRules last = DEFAULT;
+
+    private final String text;
+    // 类名后缀和对应的字段后缀，按顺序匹配
+    private final String[] typeSuffixes;
+    private final String[] fieldSuffixes;
+    private final String defaultSuffix;
+    private final boolean stripPrefix;
+
+    private NamingRules(String text, String[] typeSuffixes, String[] fieldSuffixes, String defaultSuffix, boolean stripPrefix) {
+        this.text = text;
+        this.typeSuffixes = typeSuffixes;
+        this.fieldSuffixes = fieldSuffixes;
+        this.defaultSuffix = defaultSuffix;
+        this.stripPrefix = stripPrefix;
+    }
+
+    /**
+     * 解析规则文本
+     * @param text
+     * @return
+     * @throws IllegalArgumentException 规则格式不正确
+     */
+    public static NamingRules parse(String text) {
+        NamingRules cached = last;
+        if (cached != null && cached.text.equals(text)) {
+            return cached;
+        }
+        List<String> typeSuffixList = new ArrayList<>();
+        List<String> fieldSuffixList = new ArrayList<>();
+        String defaultSuffix = "";
+        boolean stripPrefix = true;
+        String[] lines = text.split("\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            int index = line.indexOf('=');
+            if (index <= 0) {
+                throw new IllegalArgumentException("第" + (i + 1) + "行格式不正确：" + line);
+            }
+            String key = line.substring(0, index).trim();
+            String value = line.substring(index + 1).trim();
+            if ("*".equals(key)) {
+                defaultSuffix = value;
+            } else if ("prefix".equals(key)) {
+                stripPrefix = Boolean.parseBoolean(value);
+            } else {
+                typeSuffixList.add(key);
+                fieldSuffixList.add(value);
+            }
+        }
+        NamingRules rules = new NamingRules(text, typeSuffixList.toArray(new String[typeSuffixList.size()]),
+                fieldSuffixList.toArray(new String[fieldSuffixList.size()]), defaultSuffix, stripPrefix);
+        last = rules;
+        return rules;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * 计算字段名（main_user_name -> userNameView）
+     * @param prefix 布局前缀，带下划线，如main_
+     * @param id
+     * @param simpleName view的类名，如TextView
+     * @return
+     */
+    public String getFieldName(String prefix, String id, String simpleName) {
+        String realId = stripPrefix ? id.replace(prefix, "") : id;
+        String suffix = getFieldNameSuffix(simpleName);
+        StringBuilder fieldNameBuilder = new StringBuilder(realId.length() + suffix.length());
+        boolean upper = false;
+        for (int i = 0; i < realId.length(); i++) {
+            char c = realId.charAt(i);
+            if (c == '_') {
+                upper = true;
+            } else if (upper) {
+                fieldNameBuilder.append(Character.toUpperCase(c));
+                upper = false;
+            } else {
+                fieldNameBuilder.append(c);
+            }
+        }
+        return fieldNameBuilder.append(suffix).toString();
+    }
+
+    private String getFieldNameSuffix(String simpleName) {
+        for (int i = 0; i < typeSuffixes.length; i++) {
+            if (simpleName.endsWith(typeSuffixes[i])) {
+                return fieldSuffixes[i];
+            }
+        }
+        return defaultSuffix;
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.johan.initview;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次InitView运行的统计：各阶段耗时和写入的代码量
+ */
+public class RunStatistics {
+
+    // 开始时间
+    private long timestamp = System.currentTimeMillis();
+    private String layoutName;
+    private String className;
+    // 阶段 -> 耗时（纳秒），按执行顺序
+    private Map<String, Long> phaseMap = new LinkedHashMap<>();
+    // 解析出的element数量
+    private int elementCount;
+    // 写入的语句、字段、方法数量，写入的方法和类中的语句也计算在内
+    private int statementCount;
+    // 写入的PSI节点数量
+    private int nodeCount;
+
+    public RunStatistics(String layoutName) {
+        this.layoutName = layoutName;
+    }
+
+    /**
+     * 记录阶段耗时，同一个阶段多次记录时累加
+     * @param phase
+     * @param startNanos 阶段开始时的System.nanoTime()
+     */
+    public synchronized void addPhase(String phase, long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        Long old = phaseMap.get(phase);
+        phaseMap.put(phase, old == null ? nanos : old + nanos);
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public void setElementCount(int elementCount) {
+        this.elementCount = elementCount;
+    }
+
+    public void addStatementCount(int count) {
+        statementCount += count;
+    }
+
+    public void addNodeCount(int count) {
+        nodeCount += count;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 获取总耗时（毫秒）
+     * @return
+     */
+    public synchronized long getTotalMillis() {
+        long total = 0;
+        for (Long nanos : phaseMap.values()) {
+            total += nanos;
+        }
+        return total / 1000000;
+    }
+
+    /**
+     * 在balloon中显示的内容
+     * @return
+     */
+    public synchronized String toHtml() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(layoutName);
+        if (className != null) {
+            builder.append(" -> ").append(className);
+        }
+        builder.append("：").append(getTotalMillis()).append("ms<br>");
+        for (Map.Entry<String, Long> entry : phaseMap.entrySet()) {
+            builder.append(entry.getKey()).append("：").append(entry.getValue() / 1000000).append("ms<br>");
+        }
+        builder.append("element：").append(elementCount)
+                .append("，语句：").append(statementCount)
+                .append("，PSI节点：").append(nodeCount);
+        return builder.toString();
+    }
+
+    /**
+     * 输出JSON
+     * @param builder
+     */
+    public synchronized void toJson(StringBuilder builder) {
+        builder.append("{");
+        builder.append("\"timestamp\":").append(timestamp);
+        builder.append(",\"layout\":").append(JsonUtils.quote(layoutName));
+        builder.append(",\"class\":").append(JsonUtils.quote(className));
+        builder.append(",\"totalMillis\":").append(getTotalMillis());
+        builder.append(",\"phases\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> entry : phaseMap.entrySet()) {
+            if (!first) builder.append(",");
+            first = false;
+            builder.append(JsonUtils.quote(entry.getKey())).append(":").append(entry.getValue() / 1000);
+        }
+        builder.append("}");
+        builder.append(",\"elements\":").append(elementCount);
+        builder.append(",\"statements\":").append(statementCount);
+        builder.append(",\"psiNodes\":").append(nodeCount);
+        builder.append("}");
+    }
+
+}
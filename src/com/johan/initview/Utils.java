@@ -1,35 +1,26 @@
 package com.johan.initview;
 
 import com.intellij.openapi.editor.Editor;
-import com.intellij.openapi.project.Project;
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.psi.*;
-import com.intellij.psi.search.FilenameIndex;
-import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class Utils {
 
-    // view id 正则
-    private static final Pattern idPattern = Pattern.compile("@\\+?(android:)?id/([^$]+)$", Pattern.CASE_INSENSITIVE);
-
     /**
      * 从ViewId（@+id/view_id）获取Id（view_id）
      * @param viewId
      * @return
      */
     public static String getViewId(String viewId) {
-        Matcher matcher = idPattern.matcher(viewId);
-        if (matcher.find() && matcher.groupCount() > 1) {
-            return matcher.group(2);
-        }
-        return null;
+        return LayoutScanner.getViewId(viewId);
     }
 
     /**
@@ -37,68 +28,113 @@ public class Utils {
      * @param layout
      * @return
      */
-    private static String getLayoutName(String layout) {
-        if (layout == null || !layout.startsWith("@") || !layout.contains("/")) return null;
-        String[] parts = layout.split("/");
-        if (parts.length != 2) return null;
-        return parts[1];
+    public static String getLayoutName(String layout) {
+        return LayoutScanner.getLayoutName(layout);
+    }
+
+    /**
+     * 获取布局文件的id前缀（activity_main.xml -> main）
+     * @param fileName
+     * @return
+     */
+    public static String getLayoutPrefix(String fileName) {
+        return LayoutScanner.getLayoutPrefix(fileName);
     }
 
     /**
-     * 解析xmlLayoutFile布局文件，结果保存elementList中
+     * 通过PSI解析布局文件（容错，可以解析正在编辑的文件），记录根标签
      * @param xmlLayoutFile
-     * @param elementList
+     * @return
      */
-    public static void parseXmlLayout(final PsiFile xmlLayoutFile, final List<Element> elementList) {
-        String fileName = xmlLayoutFile.getName();
-        int index = fileName.indexOf("_");
-        if (index != -1) {
-            fileName = fileName.substring(index + 1);
-        }
-        index = fileName.indexOf(".");
-        if (index != -1) {
-            fileName = fileName.substring(0, index);
+    public static LayoutInfo parseLayoutInfo(PsiFile xmlLayoutFile) {
+        List<Element> elementList = new ArrayList<>();
+        List<String> includeList = new ArrayList<>();
+        parseXmlLayout(xmlLayoutFile, elementList, includeList);
+        String rootName = null;
+        String rootId = "";
+        XmlTag rootTag = xmlLayoutFile instanceof XmlFile ? ((XmlFile) xmlLayoutFile).getRootTag() : null;
+        if (rootTag != null) {
+            rootName = rootTag.getName();
+            String id = rootTag.getAttributeValue("android:id");
+            rootId = id == null ? "" : getViewId(id);
         }
-        final String prefix = fileName;
+        return new LayoutInfo(getLayoutPrefix(xmlLayoutFile.getName()), Collections.unmodifiableList(elementList),
+                Collections.unmodifiableList(includeList), rootName, rootId);
+    }
+
+    /**
+     * 解析xmlLayoutFile布局文件，结果保存elementList中，include的布局名保存在includeList中
+     * @param xmlLayoutFile
+     * @param elementList
+     * @param includeList
+     */
+    public static void parseXmlLayout(final PsiFile xmlLayoutFile, final List<Element> elementList, final List<String> includeList) {
+        final String prefix = getLayoutPrefix(xmlLayoutFile.getName());
         xmlLayoutFile.accept(new XmlRecursiveElementVisitor(){
             @Override
             public void visitElement(PsiElement element) {
+                // 允许后台解析被取消
+                ProgressManager.checkCanceled();
                 super.visitElement(element);
                 if (element instanceof XmlTag) {
                     XmlTag tag = (XmlTag) element;
                     String name = tag.getName();
-                    // 如果是include标签，暂时不要找include标签
-                    /* if (name.equalsIgnoreCase("include")) {
+                    // 如果是include标签，只记录布局名，由LayoutResolver展开
+                    if (name.equalsIgnoreCase("include")) {
                         XmlAttribute layoutAttr = tag.getAttribute("layout", null);
                         if (layoutAttr == null) return;
                         String layout = getLayoutName(layoutAttr.getValue());
                         if (layout == null) return;
-                        // 再次查找include的layout布局文件
-                        Project project = xmlLayoutFile.getProject();
-                        PsiFile[] psiFiles = FilenameIndex.getFilesByName(project, layout + ".xml", GlobalSearchScope.allScope(project));
-                        if (psiFiles == null || psiFiles.length == 0) return;
-                        XmlFile layoutFile = (XmlFile) psiFiles[0];
-                        // 递归查找
-                        parseXmlLayout(layoutFile, elementList);
+                        includeList.add(layout);
                         return;
-                    } */
+                    }
                     // 如果不是include，那么就是view标签
-                    String id = "";
                     XmlAttribute idAttr = tag.getAttribute("android:id", null);
+                    XmlAttribute clickableAttr = tag.getAttribute("android:clickable", null);
+                    XmlAttribute onClickAttr = tag.getAttribute("android:onClick", null);
+                    // ViewStub记录inflate的布局，由LayoutExpander单独展开，没有id时也需要保留
+                    String stubLayout = null;
+                    String inflatedId = null;
+                    if (name.equals("ViewStub")) {
+                        XmlAttribute stubLayoutAttr = tag.getAttribute("android:layout", null);
+                        stubLayout = stubLayoutAttr == null ? null : getLayoutName(stubLayoutAttr.getValue());
+                        XmlAttribute inflatedIdAttr = tag.getAttribute("android:inflatedId", null);
+                        inflatedId = stubLayout == null || inflatedIdAttr == null ? null : getViewId(inflatedIdAttr.getValue());
+                    }
+                    // 没有这些属性的view不需要生成代码
+                    if (idAttr == null && clickableAttr == null && onClickAttr == null && stubLayout == null) return;
+                    String id = "";
                     if (idAttr != null) {
                         id = getViewId(idAttr.getValue());
                     }
-                    XmlAttribute clickableAttr = tag.getAttribute("android:clickable", null);
                     boolean clickable = clickableAttr == null ? false : clickableAttr.getValue().equals("false") ? false : true;
-                    XmlAttribute onClickAttr = tag.getAttribute("android:onClick", null);
                     String onClick = onClickAttr== null ? null : onClickAttr.getValue();
-                    Element parseResultElement = new Element(prefix, name, id, clickable, onClick);
+                    Element parseResultElement = new Element(prefix, name, id, clickable, onClick, stubLayout, inflatedId);
                     elementList.add(parseResultElement);
                 }
             }
         });
     }
 
+    /**
+     * 查找布局文件中android:id为id的标签，用于跳转（只在需要时解析PSI）
+     * @param xmlLayoutFile
+     * @param id
+     * @param tagList
+     */
+    public static void findTags(PsiFile xmlLayoutFile, final String id, final List<XmlTag> tagList) {
+        xmlLayoutFile.accept(new XmlRecursiveElementVisitor() {
+            @Override
+            public void visitXmlTag(XmlTag tag) {
+                super.visitXmlTag(tag);
+                XmlAttribute idAttr = tag.getAttribute("android:id", null);
+                if (idAttr != null && id.equals(getViewId(idAttr.getValue()))) {
+                    tagList.add(tag);
+                }
+            }
+        });
+    }
+
     /**
      * 从当前文件获取class文件
      * @param editor
@@ -106,7 +142,16 @@ public class Utils {
      * @return
      */
     public static PsiClass getTargetClass(Editor editor, PsiFile file) {
-        int offset = editor.getCaretModel().getOffset();
+        return getTargetClass(file, editor.getCaretModel().getOffset());
+    }
+
+    /**
+     * 从当前文件offset位置获取class文件
+     * @param file
+     * @param offset
+     * @return
+     */
+    public static PsiClass getTargetClass(PsiFile file, int offset) {
         PsiElement element = file.findElementAt(offset);
         if (element == null) {
             return null;
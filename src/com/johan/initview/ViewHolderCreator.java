@@ -0,0 +1,135 @@
+package com.johan.initview;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.*;
+import com.intellij.psi.util.InheritanceUtil;
+
+import java.util.List;
+
+/**
+ * 在Adapter中生成静态内部类ViewHolder，在构造方法中从itemView查找一次所有子view，
+ * 滑动时绑定数据不需要再findViewById
+ */
+public class ViewHolderCreator extends BaseCreator {
+
+    // RecyclerView.Adapter -> RecyclerView.ViewHolder
+    private static final String[][] RECYCLER_VIEW_HOLDERS = {
+            {"androidx.recyclerview.widget.RecyclerView.Adapter", "androidx.recyclerview.widget.RecyclerView.ViewHolder"},
+            {"android.support.v7.widget.RecyclerView.Adapter", "android.support.v7.widget.RecyclerView.ViewHolder"}
+    };
+    // ListView、GridView等使用的Adapter
+    private static final String LIST_ADAPTER = "android.widget.Adapter";
+
+    private List<Element> elementList;
+    // Adapter类
+    private PsiClass psiClass;
+    // ViewHolder类名
+    private String holderName;
+    // ViewHolder父类，ListView的ViewHolder没有父类
+    private String holderSuperClass;
+
+    /**
+     * @param project
+     * @param psiFile
+     * @param psiClass
+     * @param elementList 已经在后台解析了类型（ViewTypeResolver.resolveTypes），写操作中不再查找类
+     * @param layoutName
+     */
+    protected ViewHolderCreator(Project project, PsiFile psiFile, PsiClass psiClass, List<Element> elementList, String layoutName) {
+        super(project, psiFile);
+        this.psiClass = psiClass;
+        this.elementList = elementList;
+        this.holderName = getHolderName(layoutName);
+        this.holderSuperClass = getHolderSuperClass(psiClass);
+    }
+
+    /**
+     * 是否是Adapter（RecyclerView或者ListView的）
+     * @param psiClass
+     * @return
+     */
+    public static boolean isAdapter(PsiClass psiClass) {
+        return getHolderSuperClass(psiClass) != null || InheritanceUtil.isInheritor(psiClass, LIST_ADAPTER);
+    }
+
+    /**
+     * 获取ViewHolder的父类
+     * @param psiClass
+     * @return 不是RecyclerView的Adapter时返回null
+     */
+    private static String getHolderSuperClass(PsiClass psiClass) {
+        for (String[] recyclerViewHolder : RECYCLER_VIEW_HOLDERS) {
+            if (InheritanceUtil.isInheritor(psiClass, recyclerViewHolder[0])) {
+                return recyclerViewHolder[1];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取ViewHolder类名（item_user -> ItemUserViewHolder）
+     * @param layoutName
+     * @return
+     */
+    private static String getHolderName(String layoutName) {
+        return BindingCode.toClassName(layoutName) + "ViewHolder";
+    }
+
+    @Override
+    void generate() {
+        statistics.setClassName(psiClass.getName() + "." + holderName);
+        long start = System.nanoTime();
+        PsiClass holderClass = psiClass.findInnerClassByName(holderName, false);
+        if (holderClass == null) {
+            buildHolderClass();
+        } else {
+            updateHolderClass(holderClass);
+        }
+        statistics.addPhase("buildViewHolder", start);
+        formatInserted();
+    }
+
+    /**
+     * ViewHolder不存在，创建ViewHolder
+     */
+    private void buildHolderClass() {
+        StringBuilder classBuilder = new StringBuilder();
+        BindingCode.appendHolderClass(classBuilder, "static", "", holderName, holderSuperClass, elementList);
+        PsiClass holderClass = factory.createClassFromText(classBuilder.toString(), psiClass).getInnerClasses()[0];
+        markInserted(psiClass.add(holderClass));
+    }
+
+    /**
+     * ViewHolder已经存在，补充没有的字段和findViewById
+     * @param holderClass
+     */
+    private void updateHolderClass(PsiClass holderClass) {
+        ClassMemberIndex memberIndex = new ClassMemberIndex(holderClass);
+        PsiMethod[] constructors = holderClass.getConstructors();
+        PsiMethod constructor = constructors.length == 0 ? null : constructors[0];
+        if (constructor == null || constructor.getBody() == null) return;
+        memberIndex.indexBindingMethod(constructor);
+        StringBuilder fieldBuilder = new StringBuilder();
+        StringBuilder codeBuilder = new StringBuilder();
+        // 构造方法中itemView参数的名字
+        PsiParameter[] parameters = constructor.getParameterList().getParameters();
+        String itemView = parameters.length == 0 ? "itemView" : parameters[0].getName();
+        for (Element element : elementList) {
+            // 如果不是有效的id
+            if (!element.isValidId()) continue;
+            if (!memberIndex.hasField(element.getFieldName())) {
+                BindingCode.appendField(fieldBuilder, "", element);
+                memberIndex.addField(element.getFieldName());
+            }
+            if (!memberIndex.isBound(element)) {
+                BindingCode.appendFindViewById(codeBuilder, itemView, element);
+            }
+        }
+        // 所有语句一次写入构造方法末尾
+        addStatements(constructor.getBody(), codeBuilder);
+        // 所有字段一次写入，放在最后一个字段后面
+        PsiField[] psiFields = holderClass.getFields();
+        addMembers(holderClass, fieldBuilder, psiFields.length == 0 ? holderClass.getLBrace() : psiFields[psiFields.length - 1]);
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.johan.initview;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 把布局中的标签名解析为类的全限定名，生成代码后由shortenClassReferences加入import
+ * 解析结果缓存在项目上，类的结构变化（增删类、修改继承）时清空
+ * 没有缓存时每个标签都要查找类，需要在后台的读操作中调用，不要在写操作中调用
+ */
+public class ViewTypeResolver {
+
+    // 没有包名的标签，和LayoutInflater一样依次在这些包中查找
+    private static final String[] VIEW_PACKAGES = {"android.widget.", "android.view.", "android.webkit.", "android.app."};
+
+    /**
+     * 解析element的类型，返回新的element，不修改索引中的element
+     * @param project
+     * @param elementList
+     * @return
+     */
+    public static List<Element> resolveTypes(Project project, List<Element> elementList) {
+        Map<String, String> typeMap = getTypeMap(project);
+        List<Element> resolvedList = new ArrayList<>(elementList.size());
+        for (Element element : elementList) {
+            String tagName = element.getQualifiedName();
+            String type = typeMap.get(tagName);
+            if (type == null) {
+                type = resolve(project, tagName);
+                typeMap.put(tagName, type);
+            }
+            if (element.isViewStub() && !element.getStubElementList().isEmpty()) {
+                element = element.withStubElements(resolveTypes(project, element.getStubElementList()));
+            }
+            resolvedList.add(type.equals(element.getType()) ? element : element.withType(type));
+        }
+        return resolvedList;
+    }
+
+    /**
+     * 标签名 -> 全限定名，没有找到类时是标签名本身
+     * @param project
+     * @return
+     */
+    private static Map<String, String> getTypeMap(Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, new CachedValueProvider<Map<String, String>>() {
+            @Nullable
+            @Override
+            public Result<Map<String, String>> compute() {
+                return Result.<Map<String, String>>create(new ConcurrentHashMap<String, String>(),
+                        PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT);
+            }
+        });
+    }
+
+    private static String resolve(Project project, String tagName) {
+        JavaPsiFacade facade = JavaPsiFacade.getInstance(project);
+        GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+        if (tagName.contains(".")) {
+            // 内部类在布局中写作com.example.Outer$Inner
+            String className = tagName.replace('$', '.');
+            PsiClass psiClass = facade.findClass(className, scope);
+            return psiClass == null || psiClass.getQualifiedName() == null ? tagName : psiClass.getQualifiedName();
+        }
+        for (String viewPackage : VIEW_PACKAGES) {
+            PsiClass psiClass = facade.findClass(viewPackage + tagName, scope);
+            if (psiClass != null) {
+                return viewPackage + tagName;
+            }
+        }
+        return tagName;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.johan.initview;
+
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.fixtures.LightCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 大布局、大类的性能测试：解析布局 -> 解析类型 -> InitViewCreator写入代码
+ * 限制第一次运行和重复运行的耗时以及写入的语句、PSI节点数量，写入代码变慢或重复写入时测试失败
+ */
+public class InitViewPerformanceTest extends LightCodeInsightFixtureTestCase {
+
+    // 嵌套层数，每层一个LinearLayout
+    private static final int DEPTH = 20;
+    // 每层LinearLayout中的view数量，加上LinearLayout本身共5000个id
+    private static final int VIEWS_PER_LEVEL = 249;
+    // 类中已经绑定的id数量
+    private static final int BOUND_COUNT = 500;
+    // 类中已有的填充方法数量，每个5行，加上字段和initView约3000行
+    private static final int FILLER_METHOD_COUNT = 400;
+
+    private static final long FIRST_RUN_BUDGET_MILLIS = 20000;
+    private static final long RERUN_BUDGET_MILLIS = 5000;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package android.view; public class View {"
+                + " public interface OnClickListener { void onClick(View view); }"
+                + " public int getId() { return 0; }"
+                + " public void setOnClickListener(OnClickListener listener) {} }");
+        myFixture.addClass("package android.view; public class ViewGroup extends View {}");
+        myFixture.addClass("package android.widget; public class LinearLayout extends android.view.ViewGroup {}");
+        myFixture.addClass("package android.widget; public class TextView extends android.view.View {}");
+        myFixture.addClass("package android.widget; public class Button extends TextView {}");
+        myFixture.addClass("package android.widget; public class EditText extends TextView {}");
+        myFixture.addClass("package android.widget; public class ImageView extends android.view.View {}");
+        myFixture.addClass("package android.app; public class Activity {"
+                + " public android.view.View findViewById(int id) { return null; }"
+                + " public void setContentView(int layout) {} }");
+    }
+
+    public void testHugeLayout() {
+        PsiFile layoutFile = myFixture.addFileToProject("res/layout/activity_huge.xml", createLayout());
+        List<Element> elementList = parse(layoutFile);
+        assertEquals(DEPTH * (VIEWS_PER_LEVEL + 1), elementList.size());
+        myFixture.addClass(createR(elementList));
+        PsiClass psiClass = myFixture.addClass(createActivity(elementList));
+
+        // 第一次运行，写入没有绑定的view
+        RunStatistics statistics = run(psiClass, elementList, FIRST_RUN_BUDGET_MILLIS);
+        int unbound = elementList.size() - BOUND_COUNT;
+        // 每个view一个字段和一个findViewById，每个点击的view一个setOnClickListener和case、break，另外是onClick方法和switch
+        assertTrue("写入语句过多：" + statistics.getStatementCount(),
+                statistics.getStatementCount() <= unbound * 2 + getClickableCount(elementList) * 3 + 2);
+        assertTrue("没有写入代码", statistics.getStatementCount() >= unbound * 2);
+        String text = psiClass.getContainingFile().getText();
+
+        // 重复运行不写入任何代码
+        statistics = run(psiClass, parse(layoutFile), RERUN_BUDGET_MILLIS);
+        assertEquals(0, statistics.getStatementCount());
+        assertEquals(0, statistics.getNodeCount());
+        assertEquals(text, psiClass.getContainingFile().getText());
+    }
+
+    /**
+     * 和InitViewTask一样，先在读操作中解析布局和类型，再在写操作中生成代码
+     * @param psiClass
+     * @param elementList
+     * @param budgetMillis
+     * @return
+     */
+    private RunStatistics run(PsiClass psiClass, List<Element> elementList, long budgetMillis) {
+        long start = System.nanoTime();
+        List<Element> resolvedList = ViewTypeResolver.resolveTypes(getProject(), elementList);
+        RunStatistics statistics = new RunStatistics("activity_huge");
+        statistics.setElementCount(resolvedList.size());
+        InitViewCreator creator = new InitViewCreator(getProject(), psiClass.getContainingFile(), psiClass, resolvedList);
+        creator.setStatistics(statistics);
+        creator.execute();
+        long millis = (System.nanoTime() - start) / 1000000;
+        assertTrue("耗时" + millis + "ms，超过" + budgetMillis + "ms", millis <= budgetMillis);
+        return statistics;
+    }
+
+    private static List<Element> parse(PsiFile layoutFile) {
+        List<Element> elementList = new ArrayList<>();
+        Utils.parseXmlLayout(layoutFile, elementList, new ArrayList<String>());
+        return elementList;
+    }
+
+    private static int getClickableCount(List<Element> elementList) {
+        int count = 0;
+        for (Element element : elementList) {
+            if (element.isButton() && element.isClickable()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 20层嵌套的LinearLayout，每层249个view
+     * @return
+     */
+    private static String createLayout() {
+        String[] tags = {"TextView", "Button", "ImageView", "EditText"};
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        for (int level = 0; level < DEPTH; level++) {
+            builder.append("<LinearLayout");
+            if (level == 0) {
+                builder.append(" xmlns:android=\"http://schemas.android.com/apk/res/android\"");
+            }
+            builder.append(" android:id=\"@+id/huge_group_").append(level).append("\">\n");
+            for (int i = 0; i < VIEWS_PER_LEVEL; i++) {
+                String tag = tags[i % tags.length];
+                builder.append("<").append(tag).append(" android:id=\"@+id/huge_item_").append(level).append("_").append(i).append("\"");
+                if (i % 7 == 1) {
+                    builder.append(" android:clickable=\"true\"");
+                }
+                builder.append(" />\n");
+            }
+        }
+        for (int level = 0; level < DEPTH; level++) {
+            builder.append("</LinearLayout>\n");
+        }
+        return builder.toString();
+    }
+
+    private static String createR(List<Element> elementList) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("package com.example;\npublic final class R {\n");
+        builder.append("public static final class layout {\npublic static final int activity_huge = 1;\n}\n");
+        builder.append("public static final class id {\n");
+        for (int i = 0; i < elementList.size(); i++) {
+            builder.append("public static final int ").append(elementList.get(i).getId()).append(" = ").append(i + 2).append(";\n");
+        }
+        builder.append("}\n}\n");
+        return builder.toString();
+    }
+
+    /**
+     * 已经绑定了前500个view的Activity，约3000行
+     * @param elementList
+     * @return
+     */
+    private static String createActivity(List<Element> elementList) {
+        StringBuilder fieldBuilder = new StringBuilder();
+        StringBuilder codeBuilder = new StringBuilder();
+        for (int i = 0; i < BOUND_COUNT; i++) {
+            Element element = elementList.get(i);
+            BindingCode.appendField(fieldBuilder, "private", element);
+            BindingCode.appendFindViewById(codeBuilder, null, element);
+        }
+        StringBuilder builder = new StringBuilder();
+        builder.append("package com.example;\n\n");
+        builder.append("import android.app.Activity;\nimport android.view.*;\nimport android.widget.*;\n\n");
+        builder.append("public class HugeActivity extends Activity {\n\n");
+        builder.append(fieldBuilder).append("\n");
+        builder.append("protected void onCreate() {\nsetContentView(R.layout.activity_huge);\ninitView();\n}\n\n");
+        builder.append("private void initView() {\n").append(codeBuilder).append("}\n\n");
+        for (int i = 0; i < FILLER_METHOD_COUNT; i++) {
+            builder.append("private int filler").append(i).append("(int value) {\n")
+                    .append("int result = value * ").append(i).append(";\n")
+                    .append("return result;\n")
+                    .append("}\n\n");
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+}